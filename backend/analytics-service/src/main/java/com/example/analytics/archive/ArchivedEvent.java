@@ -0,0 +1,59 @@
+package com.example.analytics.archive;
+
+import com.example.common.event.BaseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One event flattened into columns: the envelope's id, time and correlation id plus the
+ * payload's top-level scalar fields. Nested objects and arrays are not archived.
+ *
+ * @param values {@link Long}, {@link Double} or {@link String} per column
+ */
+public record ArchivedEvent(String eventType, LocalDateTime timestamp, Map<String, Object> values) {
+
+    public static final String EVENT_ID = "eventId";
+    public static final String TIMESTAMP = "timestamp";
+    public static final String CORRELATION_ID = "correlationId";
+
+    public static ArchivedEvent of(BaseEvent<JsonNode> event) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put(EVENT_ID, event.eventId());
+        values.put(TIMESTAMP, event.timestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+        values.put(CORRELATION_ID, event.correlationId());
+        JsonNode payload = event.payload();
+        if (payload != null && payload.isObject()) {
+            payload.fields().forEachRemaining(field -> {
+                Object value = scalar(field.getValue());
+                if (value != null) {
+                    values.putIfAbsent(field.getKey(), value);
+                }
+            });
+        }
+        return new ArchivedEvent(event.eventType(), event.timestamp(), values);
+    }
+
+    static ColumnType typeOf(Object value) {
+        if (value instanceof Long) {
+            return ColumnType.LONG;
+        }
+        return value instanceof Double ? ColumnType.DOUBLE : ColumnType.STRING;
+    }
+
+    private static Object scalar(JsonNode node) {
+        if (node.isIntegralNumber() && node.canConvertToLong()) {
+            return node.longValue();
+        }
+        if (node.isNumber()) {
+            return node.doubleValue();
+        }
+        if (node.isTextual() || node.isBoolean()) {
+            return node.asText();
+        }
+        return null;
+    }
+}
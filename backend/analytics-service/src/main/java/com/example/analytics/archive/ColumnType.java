@@ -0,0 +1,21 @@
+package com.example.analytics.archive;
+
+public enum ColumnType {
+    LONG,
+    DOUBLE,
+    STRING;
+
+    /**
+     * The narrowest type that holds values of both types: integers widen to doubles, anything
+     * mixed with text becomes text.
+     */
+    ColumnType widen(ColumnType other) {
+        if (this == other) {
+            return this;
+        }
+        if (this == STRING || other == STRING) {
+            return STRING;
+        }
+        return DOUBLE;
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.analytics.archive;
+
+import com.example.common.event.BaseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only columnar archive of every event, laid out as
+ * {@code <path>/<yyyy-MM-dd>/<eventType>/<segment>.col}. Events are buffered between analytics
+ * flushes and written as one segment per day and type, before the flush acknowledges their
+ * offsets; a crash before the ack replays them, so the archive is at-least-once.
+ *
+ * <p>Flushing every second leaves many small segments, so a scheduled compaction merges each
+ * directory's segments once there are enough of them. Scans hold the read side of a lock that
+ * compaction takes exclusively while it swaps files.
+ */
+@Component
+public class EventArchive {
+    private static final Logger log = LoggerFactory.getLogger(EventArchive.class);
+
+    static final String SEGMENT_SUFFIX = ".col";
+    private static final String MERGED_SUFFIX = ".merged";
+
+    private final Path root;
+    private final boolean enabled;
+    private final int compactMinSegments;
+    private final int compactMaxRows;
+    private final List<ArchivedEvent> pending = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ReadWriteLock filesLock = new ReentrantReadWriteLock();
+
+    public EventArchive(@Value("${app.analytics.archive.path:data/archive}") String path,
+            @Value("${app.analytics.archive.enabled:true}") boolean enabled,
+            @Value("${app.analytics.archive.compact-min-segments:16}") int compactMinSegments,
+            @Value("${app.analytics.archive.compact-max-rows:1000000}") int compactMaxRows) {
+        this.root = Paths.get(path);
+        this.enabled = enabled;
+        this.compactMinSegments = compactMinSegments;
+        this.compactMaxRows = compactMaxRows;
+    }
+
+    /**
+     * Deletes the {@code .tmp} and {@code .merged} files a crash left behind mid-write; scans
+     * ignore them, so nothing else would.
+     */
+    @PostConstruct
+    public void sweepOrphans() {
+        if (!enabled || !Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.find(root, 3, (path, attributes) -> attributes.isRegularFile()
+                && isOrphan(path.getFileName().toString()))) {
+            for (Path orphan : files.toList()) {
+                Files.deleteIfExists(orphan);
+                log.info("Deleted unfinished archive file {}", orphan);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to sweep unfinished archive files", e);
+        }
+    }
+
+    private static boolean isOrphan(String name) {
+        return name.endsWith(SegmentWriter.TEMP_SUFFIX) || name.endsWith(MERGED_SUFFIX);
+    }
+
+    public void append(BaseEvent<JsonNode> event) {
+        if (!enabled || event.eventType() == null || event.timestamp() == null) {
+            return;
+        }
+        ArchivedEvent archived = ArchivedEvent.of(event);
+        synchronized (pending) {
+            pending.add(archived);
+        }
+    }
+
+    /**
+     * Takes the events appended since the last drain.
+     */
+    public List<ArchivedEvent> drain() {
+        synchronized (pending) {
+            List<ArchivedEvent> drained = new ArrayList<>(pending);
+            pending.clear();
+            return drained;
+        }
+    }
+
+    /**
+     * Puts drained events back after a failed write so the next flush writes them.
+     */
+    public void restore(List<ArchivedEvent> events) {
+        synchronized (pending) {
+            pending.addAll(0, events);
+        }
+    }
+
+    /**
+     * Writes one segment per day and event type and syncs it to disk.
+     *
+     * @throws UncheckedIOException when a segment cannot be written; segments written before
+     *                              the failure stay, so retrying may archive those events twice
+     */
+    public void write(List<ArchivedEvent> events) {
+        Map<Path, List<ArchivedEvent>> byDirectory = new HashMap<>();
+        for (ArchivedEvent event : events) {
+            byDirectory.computeIfAbsent(directory(event.timestamp().toLocalDate(), event.eventType()),
+                    dir -> new ArrayList<>()).add(event);
+        }
+        try {
+            for (Map.Entry<Path, List<ArchivedEvent>> entry : byDirectory.entrySet()) {
+                Files.createDirectories(entry.getKey());
+                SegmentWriter.write(entry.getKey().resolve(nextSegmentName()), entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive segment", e);
+        }
+    }
+
+    /**
+     * Lists the segments of one event type for the days in [from, to], holding the read lock
+     * while {@code scan} runs so compaction cannot remove them underneath it.
+     */
+    public <T> T scan(String eventType, LocalDate from, LocalDate to, SegmentScan<T> scan) throws IOException {
+        filesLock.readLock().lock();
+        try {
+            List<Path> segments = new ArrayList<>();
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                segments.addAll(segments(directory(day, eventType)));
+            }
+            return scan.apply(segments);
+        } finally {
+            filesLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.archive.compact-interval-ms:600000}")
+    public void compact() {
+        if (!enabled || !Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> days = Files.list(root)) {
+            for (Path day : days.filter(Files::isDirectory).toList()) {
+                try (Stream<Path> types = Files.list(day)) {
+                    for (Path type : types.filter(Files::isDirectory).toList()) {
+                        compact(type);
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Archive compaction failed", e);
+        }
+    }
+
+    /**
+     * Merges a directory's small segments into one, in batches of at most {@code compact-max-rows}
+     * rows. The merged file is renamed in and the originals deleted under the write lock, so a
+     * scan sees either the originals or the merged file.
+     */
+    private void compact(Path directory) throws IOException {
+        List<Path> small = new ArrayList<>();
+        List<ArchivedEvent> rows = new ArrayList<>();
+        for (Path path : segments(directory)) {
+            Segment segment = Segment.open(path);
+            if (segment.rowCount() >= compactMaxRows / 2) {
+                continue;
+            }
+            small.add(path);
+        }
+        // Merging a single segment would only rewrite it
+        if (small.size() < Math.max(2, compactMinSegments)) {
+            return;
+        }
+        String eventType = directory.getFileName().toString();
+        List<Path> merged = new ArrayList<>();
+        for (Path path : small) {
+            Segment segment = Segment.open(path);
+            if (!rows.isEmpty() && rows.size() + segment.rowCount() > compactMaxRows) {
+                if (merged.size() > 1) {
+                    replace(directory, merged, rows);
+                }
+                merged.clear();
+                rows.clear();
+            }
+            rows.addAll(segment.rows(eventType));
+            merged.add(path);
+        }
+        if (merged.size() > 1) {
+            replace(directory, merged, rows);
+        }
+        log.debug("Compacted {} archive segments in {}", small.size(), directory);
+    }
+
+    private void replace(Path directory, List<Path> originals, List<ArchivedEvent> rows) throws IOException {
+        String name = nextSegmentName();
+        // Written under a name scans ignore, then renamed in together with the deletes
+        Path staged = directory.resolve(name + MERGED_SUFFIX);
+        SegmentWriter.write(staged, rows);
+        filesLock.writeLock().lock();
+        try {
+            Files.move(staged, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+            for (Path original : originals) {
+                Files.deleteIfExists(original);
+            }
+        } finally {
+            filesLock.writeLock().unlock();
+        }
+    }
+
+    private Path directory(LocalDate day, String eventType) {
+        // Event types become directory names; keep them to a safe character set
+        return root.resolve(day.toString()).resolve(eventType.replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
+    private String nextSegmentName() {
+        return "%d-%06d%s".formatted(System.currentTimeMillis(), sequence.incrementAndGet() % 1_000_000, SEGMENT_SUFFIX);
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @FunctionalInterface
+    public interface SegmentScan<T> {
+        T apply(List<Path> segments) throws IOException;
+    }
+}
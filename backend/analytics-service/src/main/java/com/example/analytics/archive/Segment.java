@@ -0,0 +1,238 @@
+package com.example.analytics.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A memory-mapped segment written by {@link SegmentWriter}. Opening reads only the footer; a
+ * column's chunk is inflated straight from the mapping when it is asked for, so a scan touches
+ * just the columns it uses.
+ */
+public final class Segment {
+
+    private final Path path;
+    private final MappedByteBuffer mapped;
+    private final int rowCount;
+    private final Map<String, ColumnMeta> columns = new LinkedHashMap<>();
+
+    private Segment(Path path, MappedByteBuffer mapped) throws IOException {
+        this.path = path;
+        this.mapped = mapped;
+        int size = mapped.capacity();
+        if (size < 12 || mapped.getInt(size - 4) != SegmentWriter.MAGIC) {
+            throw new IOException("Not an archive segment: " + path);
+        }
+        ByteBuffer footer = mapped.duplicate().position((int) mapped.getLong(size - 12));
+        if (footer.getInt() != SegmentWriter.MAGIC) {
+            throw new IOException("Corrupt footer in archive segment " + path);
+        }
+        this.rowCount = footer.getInt();
+        int columnCount = footer.getInt();
+        for (int i = 0; i < columnCount; i++) {
+            String name = readString(footer);
+            ColumnType type = ColumnType.values()[footer.get()];
+            columns.put(name, new ColumnMeta(type, footer.getLong(), footer.getInt(), footer.getInt()));
+        }
+    }
+
+    public static Segment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new Segment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public Map<String, ColumnType> columns() {
+        Map<String, ColumnType> types = new LinkedHashMap<>();
+        columns.forEach((name, meta) -> types.put(name, meta.type()));
+        return types;
+    }
+
+    /**
+     * A numeric column as doubles, NaN where a row has no value; null when the column is missing
+     * or holds text.
+     */
+    public double[] numbers(String name) throws IOException {
+        ColumnMeta meta = columns.get(name);
+        if (meta == null || meta.type() == ColumnType.STRING) {
+            return null;
+        }
+        ByteBuffer chunk = inflate(meta);
+        boolean[] present = presence(chunk);
+        double[] values = new double[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            double value = meta.type() == ColumnType.LONG ? chunk.getLong() : chunk.getDouble();
+            values[row] = present[row] ? value : Double.NaN;
+        }
+        return values;
+    }
+
+    /**
+     * A LONG column's exact values, null where a row has no value.
+     */
+    private Long[] longs(ColumnMeta meta) throws IOException {
+        ByteBuffer chunk = inflate(meta);
+        boolean[] present = presence(chunk);
+        Long[] values = new Long[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            long value = chunk.getLong();
+            values[row] = present[row] ? value : null;
+        }
+        return values;
+    }
+
+    /**
+     * A column as dictionary codes, -1 where a row has no value. Numeric columns are turned into
+     * their text form so they can be grouped on too. Null when the column is missing.
+     */
+    public StringColumn strings(String name) throws IOException {
+        ColumnMeta meta = columns.get(name);
+        if (meta == null) {
+            return null;
+        }
+        if (meta.type() != ColumnType.STRING) {
+            return fromNumbers(meta, numbers(name));
+        }
+        ByteBuffer chunk = inflate(meta);
+        presence(chunk);
+        String[] dictionary = new String[chunk.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(chunk);
+        }
+        int[] codes = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            codes[row] = chunk.getInt();
+        }
+        return new StringColumn(dictionary, codes);
+    }
+
+    /**
+     * Every row back as an event, for compaction.
+     */
+    public List<ArchivedEvent> rows(String eventType) throws IOException {
+        List<Map<String, Object>> values = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            values.add(new LinkedHashMap<>());
+        }
+        for (Map.Entry<String, ColumnMeta> column : columns.entrySet()) {
+            String name = column.getKey();
+            if (column.getValue().type() == ColumnType.STRING) {
+                StringColumn strings = strings(name);
+                for (int row = 0; row < rowCount; row++) {
+                    if (strings.codes()[row] >= 0) {
+                        values.get(row).put(name, strings.dictionary()[strings.codes()[row]]);
+                    }
+                }
+            } else if (column.getValue().type() == ColumnType.LONG) {
+                Long[] longs = longs(column.getValue());
+                for (int row = 0; row < rowCount; row++) {
+                    if (longs[row] != null) {
+                        values.get(row).put(name, longs[row]);
+                    }
+                }
+            } else {
+                double[] numbers = numbers(name);
+                for (int row = 0; row < rowCount; row++) {
+                    if (!Double.isNaN(numbers[row])) {
+                        values.get(row).put(name, numbers[row]);
+                    }
+                }
+            }
+        }
+        List<ArchivedEvent> events = new ArrayList<>(rowCount);
+        for (Map<String, Object> row : values) {
+            Object millis = row.get(ArchivedEvent.TIMESTAMP);
+            LocalDateTime timestamp = millis instanceof Long epochMilli
+                    ? LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC) : null;
+            events.add(new ArchivedEvent(eventType, timestamp, row));
+        }
+        return events;
+    }
+
+    private ByteBuffer inflate(ColumnMeta meta) throws IOException {
+        ByteBuffer compressed = mapped.slice((int) meta.offset(), meta.compressedLength());
+        byte[] raw = new byte[meta.rawLength()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, raw.length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != raw.length) {
+                throw new IOException("Truncated column chunk in " + path);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column chunk in " + path, e);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(raw);
+    }
+
+    private boolean[] presence(ByteBuffer chunk) {
+        byte[] bitmap = new byte[(rowCount + 7) / 8];
+        chunk.get(bitmap);
+        boolean[] present = new boolean[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            present[row] = (bitmap[row >>> 3] & (1 << (row & 7))) != 0;
+        }
+        return present;
+    }
+
+    private StringColumn fromNumbers(ColumnMeta meta, double[] numbers) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        int[] codes = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            if (Double.isNaN(numbers[row])) {
+                codes[row] = -1;
+                continue;
+            }
+            String text = meta.type() == ColumnType.LONG
+                    ? Long.toString((long) numbers[row]) : Double.toString(numbers[row]);
+            codes[row] = dictionary.computeIfAbsent(text, key -> dictionary.size());
+        }
+        return new StringColumn(dictionary.keySet().toArray(String[]::new), codes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] utf8 = new byte[buffer.getInt()];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param codes index into {@code dictionary} per row, -1 for no value
+     */
+    public record StringColumn(String[] dictionary, int[] codes) {
+    }
+
+    private record ColumnMeta(ColumnType type, long offset, int compressedLength, int rawLength) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.analytics.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes an immutable segment file: one deflated chunk per column, then a footer listing each
+ * column's type and chunk position. Strings are dictionary encoded, which keeps low-cardinality
+ * columns such as currency or status tiny and lets readers group by integer code.
+ *
+ * <p>Chunk layout before compression: a presence bitmap, then the values (8 bytes each for
+ * numbers; a dictionary and one int code per row for strings).
+ */
+final class SegmentWriter {
+    static final int MAGIC = 0x45564331; // "EVC1"
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private SegmentWriter() {
+    }
+
+    /**
+     * Writes to a temporary file, syncs it and moves it into place, so readers never see a
+     * partial segment.
+     */
+    static void write(Path target, List<ArchivedEvent> events) throws IOException {
+        Map<String, ColumnType> columns = new LinkedHashMap<>();
+        for (ArchivedEvent event : events) {
+            event.values().forEach((name, value) -> columns.merge(name, ArchivedEvent.typeOf(value), ColumnType::widen));
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+            DataOutputStream footer = new DataOutputStream(footerBytes);
+            footer.writeInt(MAGIC);
+            footer.writeInt(events.size());
+            footer.writeInt(columns.size());
+            long offset = 0;
+            for (Map.Entry<String, ColumnType> column : columns.entrySet()) {
+                byte[] raw = encode(events, column.getKey(), column.getValue());
+                byte[] chunk = deflate(raw);
+                channel.write(ByteBuffer.wrap(chunk));
+                writeString(footer, column.getKey());
+                footer.writeByte(column.getValue().ordinal());
+                footer.writeLong(offset);
+                footer.writeInt(chunk.length);
+                footer.writeInt(raw.length);
+                offset += chunk.length;
+            }
+            footer.writeLong(offset);
+            footer.writeInt(MAGIC);
+            channel.write(ByteBuffer.wrap(footerBytes.toByteArray()));
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte[] encode(List<ArchivedEvent> events, String name, ColumnType type) throws IOException {
+        int rows = events.size();
+        byte[] present = new byte[(rows + 7) / 8];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows * 8 + present.length);
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int row = 0; row < rows; row++) {
+            if (events.get(row).values().get(name) != null) {
+                present[row >>> 3] |= (byte) (1 << (row & 7));
+            }
+        }
+        out.write(present);
+        switch (type) {
+            case LONG -> {
+                for (ArchivedEvent event : events) {
+                    Object value = event.values().get(name);
+                    out.writeLong(value == null ? 0 : (Long) value);
+                }
+            }
+            case DOUBLE -> {
+                for (ArchivedEvent event : events) {
+                    Object value = event.values().get(name);
+                    out.writeDouble(value == null ? 0 : ((Number) value).doubleValue());
+                }
+            }
+            case STRING -> {
+                Map<String, Integer> dictionary = new LinkedHashMap<>();
+                int[] codes = new int[rows];
+                for (int row = 0; row < rows; row++) {
+                    Object value = events.get(row).values().get(name);
+                    codes[row] = value == null ? -1 : dictionary.computeIfAbsent(value.toString(), key -> dictionary.size());
+                }
+                out.writeInt(dictionary.size());
+                for (String entry : dictionary.keySet()) {
+                    writeString(out, entry);
+                }
+                for (int code : codes) {
+                    out.writeInt(code);
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static byte[] deflate(byte[] raw) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater, 8192)) {
+            out.write(raw);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+}
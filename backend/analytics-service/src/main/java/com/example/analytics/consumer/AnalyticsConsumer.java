@@ -1,39 +1,99 @@
 package com.example.analytics.consumer;
 
-import com.example.analytics.domain.EventStat;
-import com.example.analytics.repository.EventStatRepository;
+import com.example.analytics.service.AnalyticsFlusher;
+import com.example.analytics.service.FunnelTracker;
 import com.example.common.constants.KafkaConstants;
+import com.example.common.event.BaseEvent;
+import com.example.common.event.InventoryEvent;
+import com.example.common.event.OrderCreatedEvent;
+import com.example.common.event.PaymentEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Component
 public class AnalyticsConsumer {
     private static final Logger log = LoggerFactory.getLogger(AnalyticsConsumer.class);
 
-    private final EventStatRepository repository;
+    public static final String LISTENER_ID = "analytics-events";
+    public static final String GROUP_ID = "analytics-service-group";
+    public static final List<String> TOPICS = List.of(
+            KafkaConstants.ORDER_EVENTS_TOPIC,
+            KafkaConstants.INVENTORY_EVENTS_TOPIC,
+            KafkaConstants.PAYMENT_EVENTS_TOPIC,
+            KafkaConstants.PRODUCT_EVENTS_TOPIC);
 
-    public AnalyticsConsumer(EventStatRepository repository) {
-        this.repository = repository;
+    private final ObjectMapper objectMapper;
+    private final AnalyticsFlusher flusher;
+    private final FunnelTracker funnelTracker;
+
+    public AnalyticsConsumer(ObjectMapper objectMapper, AnalyticsFlusher flusher, FunnelTracker funnelTracker) {
+        this.objectMapper = objectMapper;
+        this.flusher = flusher;
+        this.funnelTracker = funnelTracker;
     }
 
-    @KafkaListener(topics = {
+    @KafkaListener(id = LISTENER_ID, topics = {
             KafkaConstants.ORDER_EVENTS_TOPIC,
             KafkaConstants.INVENTORY_EVENTS_TOPIC,
             KafkaConstants.PAYMENT_EVENTS_TOPIC,
             KafkaConstants.PRODUCT_EVENTS_TOPIC
-    }, groupId = "analytics-service-group")
-    @Transactional
+    }, groupId = GROUP_ID)
     public void consumeAllEvents(String message,
-            @org.springframework.messaging.handler.annotation.Header(org.springframework.kafka.support.KafkaHeaders.RECEIVED_TOPIC) String topic) {
-        log.info("Analytics received event from topic: {}", topic);
-
-        EventStat stat = repository.findById(topic)
-                .orElse(new EventStat(topic, 0L));
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.OFFSET) long offset,
+            Acknowledgment ack) {
+        log.debug("Analytics received event from topic: {}", topic);
+        BaseEvent<JsonNode> event = null;
+        try {
+            event = objectMapper.readValue(message, new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable event on {}, counting it for the topic only", topic, e);
+        }
+        OrderCreatedEvent order = event != null ? readPayloads(topic, event) : null;
+        flusher.record(topic, event, order, new TopicPartition(topic, partition), offset, ack);
+    }
 
-        stat.setCount(stat.getCount() + 1);
-        repository.save(stat);
+    /**
+     * Converts the payload once and feeds the funnel; returns the order when this is an
+     * {@code ORDER_CREATED_V1} event so the flusher can sketch it.
+     */
+    private OrderCreatedEvent readPayloads(String topic, BaseEvent<JsonNode> event) {
+        if (event.payload() == null) {
+            return null;
+        }
+        try {
+            switch (topic) {
+                case KafkaConstants.ORDER_EVENTS_TOPIC -> {
+                    if (KafkaConstants.ORDER_CREATED_V1.equals(event.eventType())) {
+                        OrderCreatedEvent order = objectMapper.treeToValue(event.payload(), OrderCreatedEvent.class);
+                        funnelTracker.onOrderCreated(event.timestamp(), order);
+                        return order;
+                    }
+                }
+                case KafkaConstants.INVENTORY_EVENTS_TOPIC -> funnelTracker.onInventory(event.timestamp(),
+                        objectMapper.treeToValue(event.payload(), InventoryEvent.class));
+                case KafkaConstants.PAYMENT_EVENTS_TOPIC -> funnelTracker.onPayment(event.timestamp(),
+                        objectMapper.treeToValue(event.payload(), PaymentEvent.class));
+                default -> {
+                }
+            }
+        } catch (JsonProcessingException | IllegalArgumentException | ArithmeticException e) {
+            // Anything escaping here would fail the record before it is counted and redeliver it forever
+            log.warn("Skipping unreadable {} payload", topic, e);
+        }
+        return null;
     }
 }
@@ -1,26 +1,157 @@
 package com.example.analytics.controller;
 
 import com.example.analytics.domain.EventStat;
-import com.example.analytics.repository.EventStatRepository;
+import com.example.analytics.domain.Granularity;
+import com.example.analytics.dto.ArchiveAggregate;
+import com.example.analytics.dto.BackfillProgress;
+import com.example.analytics.dto.FunnelSnapshot;
+import com.example.analytics.dto.RollupPoint;
+import com.example.analytics.dto.RollupTotal;
+import com.example.analytics.dto.StageLatency;
+import com.example.analytics.dto.TopItem;
+import com.example.analytics.dto.UniqueCount;
+import com.example.analytics.service.ArchiveQueryService;
+import com.example.analytics.service.BackfillService;
+import com.example.analytics.service.FunnelTracker;
+import com.example.analytics.service.LiveStats;
+import com.example.analytics.service.LiveStatsBroadcaster;
+import com.example.analytics.service.RollupQueryService;
+import com.example.analytics.service.SagaLatencies;
+import com.example.analytics.service.SketchQueryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.security.access.prepost.PreAuthorize;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/analytics")
 public class AnalyticsController {
-    private final EventStatRepository repository;
+    private final LiveStats liveStats;
+    private final LiveStatsBroadcaster liveStatsBroadcaster;
+    private final RollupQueryService rollupQueryService;
+    private final SketchQueryService sketchQueryService;
+    private final FunnelTracker funnelTracker;
+    private final SagaLatencies sagaLatencies;
+    private final BackfillService backfillService;
+    private final ArchiveQueryService archiveQueryService;
 
-    public AnalyticsController(EventStatRepository repository) {
-        this.repository = repository;
+    public AnalyticsController(LiveStats liveStats, LiveStatsBroadcaster liveStatsBroadcaster,
+            RollupQueryService rollupQueryService,
+            SketchQueryService sketchQueryService, FunnelTracker funnelTracker, SagaLatencies sagaLatencies,
+            BackfillService backfillService, ArchiveQueryService archiveQueryService) {
+        this.liveStats = liveStats;
+        this.liveStatsBroadcaster = liveStatsBroadcaster;
+        this.rollupQueryService = rollupQueryService;
+        this.sketchQueryService = sketchQueryService;
+        this.funnelTracker = funnelTracker;
+        this.sagaLatencies = sagaLatencies;
+        this.backfillService = backfillService;
+        this.archiveQueryService = archiveQueryService;
     }
 
     @GetMapping("/stats")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     public List<EventStat> getStats() {
-        return repository.findAll();
+        return liveStats.stats();
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public SseEmitter streamStats() throws IOException {
+        return liveStatsBroadcaster.subscribe();
+    }
+
+    @GetMapping("/rollups")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public List<RollupPoint> getRollups(@RequestParam String eventType,
+            @RequestParam(defaultValue = "MINUTE") Granularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return rollupQueryService.series(eventType, granularity, from, to);
+    }
+
+    @GetMapping("/rollups/total")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public RollupTotal getRollupTotal(@RequestParam String eventType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return rollupQueryService.total(eventType, from, to);
+    }
+
+    @GetMapping("/customers/unique")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public UniqueCount getUniqueCustomers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return sketchQueryService.uniqueCustomers(from, to);
+    }
+
+    @GetMapping("/products/top")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public List<TopItem> getTopProducts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "20") int limit) {
+        return sketchQueryService.topProducts(from, to, Math.max(1, limit));
+    }
+
+    @GetMapping("/funnel")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public FunnelSnapshot getFunnel() {
+        return funnelTracker.snapshot();
+    }
+
+    @GetMapping("/latency")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public List<StageLatency> getSagaLatency() {
+        return sagaLatencies.snapshot();
+    }
+
+    @PostMapping("/backfill")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<BackfillProgress> startBackfill() {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(backfillService.start());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(backfillService.progress());
+        }
+    }
+
+    @GetMapping("/backfill")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<BackfillProgress> getBackfill() {
+        BackfillProgress progress = backfillService.progress();
+        return progress == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(progress);
+    }
+
+    @DeleteMapping("/backfill")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<BackfillProgress> cancelBackfill() {
+        BackfillProgress progress = backfillService.cancel();
+        return progress == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(progress);
+    }
+
+    @GetMapping("/archive/aggregate")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ArchiveAggregate> getArchiveAggregate(@RequestParam String eventType,
+            @RequestParam String column,
+            @RequestParam(required = false) String groupBy,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(archiveQueryService.aggregate(eventType, column, groupBy, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
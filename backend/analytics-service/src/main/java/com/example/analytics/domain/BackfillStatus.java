@@ -0,0 +1,9 @@
+package com.example.analytics.domain;
+
+public enum BackfillStatus {
+    REPLAYING,
+    SWAPPING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
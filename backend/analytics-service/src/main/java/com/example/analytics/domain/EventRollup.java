@@ -0,0 +1,21 @@
+package com.example.analytics.domain;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * Events of one type counted per minute, hour or day. Timestamps are UTC.
+ */
+@Entity
+@Table(name = "event_rollups")
+public class EventRollup {
+    @EmbeddedId
+    private EventRollupId id;
+    private Long count;
+
+    public EventRollup() {}
+
+    public EventRollupId getId() { return id; }
+    public Long getCount() { return count; }
+}
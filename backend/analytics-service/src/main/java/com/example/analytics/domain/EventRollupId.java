@@ -0,0 +1,42 @@
+package com.example.analytics.domain;
+
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Embeddable
+public class EventRollupId implements Serializable {
+    @Enumerated(EnumType.STRING)
+    private Granularity granularity;
+    private LocalDateTime bucketStart;
+    private String eventType;
+
+    public EventRollupId() {}
+    public EventRollupId(Granularity granularity, LocalDateTime bucketStart, String eventType) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.eventType = eventType;
+    }
+
+    public Granularity getGranularity() { return granularity; }
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public String getEventType() { return eventType; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EventRollupId that)) return false;
+        return granularity == that.granularity
+                && Objects.equals(bucketStart, that.bucketStart)
+                && Objects.equals(eventType, that.eventType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(granularity, bucketStart, eventType);
+    }
+}
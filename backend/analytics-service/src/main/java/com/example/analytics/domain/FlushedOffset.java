@@ -0,0 +1,22 @@
+package com.example.analytics.domain;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * The offset after the last record of a partition whose counts are in the live tables. Written
+ * by the same transaction as the counts, so unlike the group's committed offsets it never lags.
+ */
+@Entity
+@Table(name = "flushed_offsets")
+public class FlushedOffset {
+    @EmbeddedId
+    private FlushedOffsetId id;
+    private Long nextOffset;
+
+    public FlushedOffset() {}
+
+    public FlushedOffsetId getId() { return id; }
+    public Long getNextOffset() { return nextOffset; }
+}
@@ -0,0 +1,33 @@
+package com.example.analytics.domain;
+
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class FlushedOffsetId implements Serializable {
+    private String topic;
+    private Integer partitionNumber;
+
+    public FlushedOffsetId() {}
+    public FlushedOffsetId(String topic, Integer partitionNumber) {
+        this.topic = topic;
+        this.partitionNumber = partitionNumber;
+    }
+
+    public String getTopic() { return topic; }
+    public Integer getPartitionNumber() { return partitionNumber; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FlushedOffsetId that)) return false;
+        return Objects.equals(topic, that.topic) && Objects.equals(partitionNumber, that.partitionNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(topic, partitionNumber);
+    }
+}
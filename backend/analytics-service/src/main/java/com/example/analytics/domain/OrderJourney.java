@@ -0,0 +1,52 @@
+package com.example.analytics.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * What analytics has seen of one order so far. Events can arrive in any order across topics,
+ * so every stage is optional until its event shows up.
+ */
+public class OrderJourney {
+    private final String orderId;
+    private final long trackedSince;
+    private String currency;
+    private long amountMinor;
+    private LocalDateTime createdAt;
+    private LocalDateTime inventoryAt;
+    private LocalDateTime paymentAt;
+    private Boolean inventoryReserved;
+    private Boolean paid;
+
+    public OrderJourney(String orderId, long trackedSince) {
+        this.orderId = orderId;
+        this.trackedSince = trackedSince;
+    }
+
+    public String getOrderId() { return orderId; }
+    public long getTrackedSince() { return trackedSince; }
+    public String getCurrency() { return currency; }
+    public long getAmountMinor() { return amountMinor; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getInventoryAt() { return inventoryAt; }
+    public LocalDateTime getPaymentAt() { return paymentAt; }
+    public Boolean getInventoryReserved() { return inventoryReserved; }
+    public Boolean getPaid() { return paid; }
+
+    public boolean isCreated() { return createdAt != null; }
+
+    public void created(LocalDateTime at, String currency, long amountMinor) {
+        this.createdAt = at;
+        this.currency = currency;
+        this.amountMinor = amountMinor;
+    }
+
+    public void inventory(LocalDateTime at, boolean reserved) {
+        this.inventoryAt = at;
+        this.inventoryReserved = reserved;
+    }
+
+    public void payment(LocalDateTime at, boolean paid) {
+        this.paymentAt = at;
+        this.paid = paid;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.analytics.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * A minute bucket for one event type.
+ */
+public record RollupKey(LocalDateTime minute, String eventType) {
+}
@@ -0,0 +1,10 @@
+package com.example.analytics.domain;
+
+/**
+ * Hops of the order saga whose latency is measured, between the event timestamps at each end.
+ */
+public enum SagaStage {
+    ORDER_TO_INVENTORY,
+    INVENTORY_TO_PAYMENT,
+    ORDER_TO_PAYMENT
+}
@@ -0,0 +1,6 @@
+package com.example.analytics.domain;
+
+public enum SketchKind {
+    UNIQUE_CUSTOMERS,
+    TOP_PRODUCTS
+}
@@ -0,0 +1,21 @@
+package com.example.analytics.domain;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * A serialised, mergeable sketch covering one hour or day.
+ */
+@Entity
+@Table(name = "sketch_rollups")
+public class SketchRollup {
+    @EmbeddedId
+    private SketchRollupId id;
+    private byte[] data;
+
+    public SketchRollup() {}
+
+    public SketchRollupId getId() { return id; }
+    public byte[] getData() { return data; }
+}
@@ -0,0 +1,43 @@
+package com.example.analytics.domain;
+
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Embeddable
+public class SketchRollupId implements Serializable {
+    @Enumerated(EnumType.STRING)
+    private SketchKind kind;
+    @Enumerated(EnumType.STRING)
+    private Granularity granularity;
+    private LocalDateTime bucketStart;
+
+    public SketchRollupId() {}
+    public SketchRollupId(SketchKind kind, Granularity granularity, LocalDateTime bucketStart) {
+        this.kind = kind;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+
+    public SketchKind getKind() { return kind; }
+    public Granularity getGranularity() { return granularity; }
+    public LocalDateTime getBucketStart() { return bucketStart; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SketchRollupId that)) return false;
+        return kind == that.kind
+                && granularity == that.granularity
+                && Objects.equals(bucketStart, that.bucketStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, granularity, bucketStart);
+    }
+}
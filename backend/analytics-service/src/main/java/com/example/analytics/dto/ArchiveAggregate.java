@@ -0,0 +1,21 @@
+package com.example.analytics.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record ArchiveAggregate(
+        String eventType,
+        String column,
+        String groupBy,
+        LocalDate from,
+        LocalDate to,
+        int segmentsScanned,
+        long rowsScanned,
+        List<Group> groups) {
+
+    /**
+     * @param key the groupBy value, or null for rows without one (or for the whole range when
+     *            there is no groupBy)
+     */
+    public record Group(String key, long count, double sum, double min, double max) {}
+}
@@ -0,0 +1,21 @@
+package com.example.analytics.dto;
+
+import com.example.analytics.domain.BackfillStatus;
+
+import java.time.Instant;
+
+/**
+ * @param recordsTotal records between the start offsets and the live consumer's committed
+ *                     offsets; grows while the backfill follows live traffic
+ * @param etaSeconds   null until a rate is known
+ */
+public record BackfillProgress(
+        BackfillStatus status,
+        Instant startedAt,
+        Instant finishedAt,
+        long recordsRead,
+        long recordsTotal,
+        double percent,
+        double recordsPerSecond,
+        Long etaSeconds,
+        String error) {}
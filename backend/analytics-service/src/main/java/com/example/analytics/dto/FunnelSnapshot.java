@@ -0,0 +1,17 @@
+package com.example.analytics.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public record FunnelSnapshot(
+        long created,
+        long inventoryReserved,
+        long inventoryFailed,
+        long paid,
+        long paymentFailed,
+        double reservationRate,
+        double paymentRate,
+        double conversionRate,
+        Map<String, BigDecimal> orderedRevenue,
+        Map<String, BigDecimal> paidRevenue,
+        int trackedOrders) {}
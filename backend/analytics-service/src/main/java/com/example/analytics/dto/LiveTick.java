@@ -0,0 +1,20 @@
+package com.example.analytics.dto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One frame of the live stream: running totals per topic plus what was flushed since the
+ * previous frame.
+ */
+public record LiveTick(
+        long sequence,
+        Instant at,
+        Map<String, Long> totals,
+        Map<String, Long> deltas,
+        List<MinuteDelta> minutes) {
+
+    public record MinuteDelta(LocalDateTime minute, String eventType, long delta) {}
+}
@@ -0,0 +1,5 @@
+package com.example.analytics.dto;
+
+import java.time.LocalDateTime;
+
+public record RollupPoint(LocalDateTime bucketStart, long count) {}
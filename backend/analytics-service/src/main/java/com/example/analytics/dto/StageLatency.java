@@ -0,0 +1,14 @@
+package com.example.analytics.dto;
+
+import com.example.analytics.domain.SagaStage;
+
+import java.time.Duration;
+
+public record StageLatency(
+        SagaStage stage,
+        Duration window,
+        long count,
+        long p50Ms,
+        long p99Ms,
+        long p999Ms,
+        long maxMs) {}
@@ -0,0 +1,3 @@
+package com.example.analytics.dto;
+
+public record TopItem(String key, long estimate) {}
@@ -0,0 +1,21 @@
+package com.example.analytics.repository;
+
+import com.example.analytics.domain.EventRollup;
+import com.example.analytics.domain.EventRollupId;
+import com.example.analytics.domain.Granularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EventRollupRepository extends JpaRepository<EventRollup, EventRollupId> {
+
+    @Query("SELECT r FROM EventRollup r WHERE r.id.granularity = :granularity AND r.id.eventType = :eventType "
+            + "AND r.id.bucketStart >= :from AND r.id.bucketStart < :to ORDER BY r.id.bucketStart")
+    List<EventRollup> findRange(Granularity granularity, String eventType, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT COALESCE(SUM(r.count), 0) FROM EventRollup r WHERE r.id.granularity = :granularity "
+            + "AND r.id.eventType = :eventType AND r.id.bucketStart >= :from AND r.id.bucketStart < :to")
+    long sumRange(Granularity granularity, String eventType, LocalDateTime from, LocalDateTime to);
+}
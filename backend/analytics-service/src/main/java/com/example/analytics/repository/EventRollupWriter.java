@@ -0,0 +1,57 @@
+package com.example.analytics.repository;
+
+import com.example.analytics.domain.Granularity;
+import com.example.analytics.domain.RollupKey;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class EventRollupWriter {
+
+    public static final String TABLE = "event_rollups";
+
+    private static final String ADD_COUNT_SQL = """
+            INSERT INTO %1$s (granularity, bucket_start, event_type, count) VALUES (?, ?, ?, ?)
+            ON CONFLICT (granularity, bucket_start, event_type)
+            DO UPDATE SET count = %1$s.count + EXCLUDED.count""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EventRollupWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds per-minute deltas to their minute rows and rolls the same deltas into the enclosing
+     * hour and day rows, so coarser rollups never have to be recomputed from finer ones.
+     */
+    public void addCounts(Map<RollupKey, Long> minuteDeltas) {
+        addCounts(TABLE, minuteDeltas);
+    }
+
+    /**
+     * @param table {@link #TABLE} or a shadow copy of it
+     */
+    public void addCounts(String table, Map<RollupKey, Long> minuteDeltas) {
+        Map<Bucket, Long> buckets = new HashMap<>();
+        minuteDeltas.forEach((key, delta) -> {
+            for (Granularity granularity : Granularity.values()) {
+                buckets.merge(new Bucket(granularity, granularity.floor(key.minute()), key.eventType()), delta, Long::sum);
+            }
+        });
+        List<Object[]> rows = new ArrayList<>(buckets.size());
+        buckets.forEach((bucket, delta) -> rows.add(new Object[] {
+                bucket.granularity().name(), Timestamp.valueOf(bucket.start()), bucket.eventType(), delta }));
+        jdbcTemplate.batchUpdate(ADD_COUNT_SQL.formatted(table), rows);
+    }
+
+    private record Bucket(Granularity granularity, LocalDateTime start, String eventType) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.analytics.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class EventStatWriter {
+
+    public static final String TABLE = "event_stats";
+
+    private static final String ADD_COUNT_SQL = """
+            INSERT INTO %1$s (event_type, count) VALUES (?, ?)
+            ON CONFLICT (event_type) DO UPDATE SET count = %1$s.count + EXCLUDED.count""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EventStatWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds every delta in one batch. The increment happens in the database, so concurrent
+     * writers never overwrite each other's counts.
+     */
+    public void addCounts(Map<String, Long> deltas) {
+        addCounts(TABLE, deltas);
+    }
+
+    /**
+     * @param table {@link #TABLE} or a shadow copy of it
+     */
+    public void addCounts(String table, Map<String, Long> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((eventType, delta) -> rows.add(new Object[] { eventType, delta }));
+        jdbcTemplate.batchUpdate(ADD_COUNT_SQL.formatted(table), rows);
+    }
+}
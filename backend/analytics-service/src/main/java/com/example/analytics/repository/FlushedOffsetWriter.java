@@ -0,0 +1,44 @@
+package com.example.analytics.repository;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class FlushedOffsetWriter {
+
+    public static final String TABLE = "flushed_offsets";
+
+    // A replica that took over a partition may flush a redelivered, older offset
+    private static final String ADVANCE_SQL = """
+            INSERT INTO %1$s (topic, partition_number, next_offset) VALUES (?, ?, ?)
+            ON CONFLICT (topic, partition_number)
+            DO UPDATE SET next_offset = GREATEST(%1$s.next_offset, EXCLUDED.next_offset)""".formatted(TABLE);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FlushedOffsetWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void advance(Map<TopicPartition, Long> nextOffsets) {
+        List<Object[]> rows = new ArrayList<>(nextOffsets.size());
+        nextOffsets.forEach((partition, offset) -> rows.add(
+                new Object[] { partition.topic(), partition.partition(), offset }));
+        jdbcTemplate.batchUpdate(ADVANCE_SQL, rows);
+    }
+
+    public Map<TopicPartition, Long> findAll() {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        jdbcTemplate.query("SELECT topic, partition_number, next_offset FROM " + TABLE,
+                (RowCallbackHandler) rs -> offsets.put(
+                        new TopicPartition(rs.getString(1), rs.getInt(2)), rs.getLong(3)));
+        return offsets;
+    }
+}
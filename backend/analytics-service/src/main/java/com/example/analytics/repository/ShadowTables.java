@@ -0,0 +1,78 @@
+package com.example.analytics.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Empty copies of the aggregate tables that a backfill fills while the live tables keep serving,
+ * then swaps in by renaming.
+ *
+ * <p>Every replica writes to the live tables, so the swap is guarded by a Postgres advisory lock
+ * rather than by pausing one listener: flushes take it shared, the swap exclusively, each for the
+ * rest of its transaction.
+ */
+@Repository
+public class ShadowTables {
+
+    private static final List<String> TABLES = List.of(
+            EventStatWriter.TABLE, EventRollupWriter.TABLE, SketchRollupWriter.TABLE);
+    // Any key, as long as every replica uses the same one
+    private static final long SWAP_LOCK_KEY = 3_600_036L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ShadowTables(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static String shadowOf(String table) {
+        return table + "_backfill";
+    }
+
+    /**
+     * Drops what an earlier, unfinished backfill left behind and creates empty copies with the
+     * live tables' columns, keys and indexes.
+     */
+    public void recreate() {
+        for (String table : TABLES) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + shadowOf(table));
+            jdbcTemplate.execute("CREATE TABLE " + shadowOf(table) + " (LIKE " + table + " INCLUDING ALL)");
+        }
+    }
+
+    /**
+     * Replaces the live tables with their shadows. Must run inside a transaction: Postgres DDL is
+     * transactional, so queries see either all old tables or all new ones.
+     */
+    public void swap() {
+        for (String table : TABLES) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + table + "_replaced");
+            jdbcTemplate.execute("ALTER TABLE " + shadowOf(table) + " RENAME TO " + table);
+            jdbcTemplate.execute("DROP TABLE " + table + "_replaced");
+        }
+    }
+
+    /**
+     * Waits for a running swap and holds off the next one until the caller's transaction ends.
+     */
+    public void lockShared() {
+        jdbcTemplate.query("select pg_advisory_xact_lock_shared(?)", (RowCallbackHandler) rs -> { }, SWAP_LOCK_KEY);
+    }
+
+    /**
+     * Waits for the flushes in progress on every replica and holds off new ones until the caller's
+     * transaction ends.
+     */
+    public void lockExclusive() {
+        jdbcTemplate.query("select pg_advisory_xact_lock(?)", (RowCallbackHandler) rs -> { }, SWAP_LOCK_KEY);
+    }
+
+    public void drop() {
+        for (String table : TABLES) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + shadowOf(table));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.analytics.repository;
+
+import com.example.analytics.domain.Granularity;
+import com.example.analytics.domain.SketchKind;
+import com.example.analytics.domain.SketchRollup;
+import com.example.analytics.domain.SketchRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SketchRollupRepository extends JpaRepository<SketchRollup, SketchRollupId> {
+
+    @Query("SELECT s FROM SketchRollup s WHERE s.id.kind = :kind AND s.id.granularity = :granularity "
+            + "AND s.id.bucketStart >= :from AND s.id.bucketStart < :to")
+    List<SketchRollup> findRange(SketchKind kind, Granularity granularity, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,81 @@
+package com.example.analytics.repository;
+
+import com.example.analytics.domain.Granularity;
+import com.example.analytics.domain.SketchKind;
+import com.example.analytics.sketch.CountMinTopK;
+import com.example.analytics.sketch.HyperLogLog;
+import com.example.analytics.sketch.WindowSketches;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+
+@Repository
+public class SketchRollupWriter {
+
+    public static final String TABLE = "sketch_rollups";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO %s (kind, granularity, bucket_start, data) VALUES (?, ?, ?, ?)
+            ON CONFLICT (kind, granularity, bucket_start) DO NOTHING""";
+    private static final String LOCK_SQL = """
+            SELECT data FROM %s WHERE kind = ? AND granularity = ? AND bucket_start = ? FOR UPDATE""";
+    private static final String UPDATE_SQL = """
+            UPDATE %s SET data = ? WHERE kind = ? AND granularity = ? AND bucket_start = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SketchRollupWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Merges each window's sketches into its row of the given granularity, locking rows in time
+     * then kind order. Callers write hours before days, so every instance takes row locks in the
+     * same order and concurrent flushes cannot deadlock.
+     *
+     * @param table {@link #TABLE} or a shadow copy of it
+     */
+    public void mergeAll(String table, Granularity granularity, Map<LocalDateTime, WindowSketches> windows) {
+        new TreeMap<>(windows).forEach((bucketStart, window) -> {
+            if (!window.customers().isEmpty()) {
+                merge(table, SketchKind.UNIQUE_CUSTOMERS, granularity, bucketStart, window.customers().toBytes(),
+                        (stored, delta) -> {
+                            HyperLogLog merged = HyperLogLog.fromBytes(stored);
+                            merged.merge(HyperLogLog.fromBytes(delta));
+                            return merged.toBytes();
+                        });
+            }
+            if (!window.products().isEmpty()) {
+                merge(table, SketchKind.TOP_PRODUCTS, granularity, bucketStart, window.products().toBytes(),
+                        (stored, delta) -> {
+                            CountMinTopK merged = CountMinTopK.fromBytes(stored);
+                            merged.merge(CountMinTopK.fromBytes(delta));
+                            return merged.toBytes();
+                        });
+            }
+        });
+    }
+
+    /**
+     * Merges a delta sketch into its stored row. A new bucket is a plain insert; an existing one is
+     * locked, merged in memory and written back, so replicas flushing the same bucket serialise on
+     * the row instead of overwriting each other. Must run inside a transaction.
+     */
+    public void merge(String table, SketchKind kind, Granularity granularity, LocalDateTime bucketStart,
+            byte[] delta, BinaryOperator<byte[]> merger) {
+        Timestamp start = Timestamp.valueOf(bucketStart);
+        int inserted = jdbcTemplate.update(INSERT_SQL.formatted(table), kind.name(), granularity.name(), start, delta);
+        if (inserted == 1) {
+            return;
+        }
+        byte[] stored = jdbcTemplate.queryForObject(LOCK_SQL.formatted(table), byte[].class,
+                kind.name(), granularity.name(), start);
+        jdbcTemplate.update(UPDATE_SQL.formatted(table), merger.apply(stored, delta),
+                kind.name(), granularity.name(), start);
+    }
+}
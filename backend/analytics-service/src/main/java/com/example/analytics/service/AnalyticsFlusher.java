@@ -0,0 +1,196 @@
+package com.example.analytics.service;
+
+import com.example.analytics.archive.ArchivedEvent;
+import com.example.analytics.archive.EventArchive;
+import com.example.analytics.domain.Granularity;
+import com.example.analytics.domain.RollupKey;
+import com.example.analytics.repository.EventRollupWriter;
+import com.example.analytics.repository.EventStatWriter;
+import com.example.analytics.repository.FlushedOffsetWriter;
+import com.example.analytics.repository.ShadowTables;
+import com.example.analytics.repository.SketchRollupWriter;
+import com.example.analytics.sketch.WindowSketches;
+import com.example.common.event.BaseEvent;
+import com.example.common.event.OrderCreatedEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Counts events in memory and writes them to {@code event_stats}, {@code event_rollups} and
+ * {@code sketch_rollups} in one transaction every interval or after {@code max-events},
+ * whichever comes first, after appending the events themselves to the {@link EventArchive}.
+ * Offsets are committed only after the counts they cover are in the database, so a crash
+ * replays unflushed events instead of losing them. The same transaction records them in
+ * {@code flushed_offsets}, which tells a backfill exactly which records the live tables hold.
+ */
+@Service
+public class AnalyticsFlusher {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsFlusher.class);
+
+    private final EventCounters counters;
+    private final RollupWindows rollups;
+    private final SketchWindows sketches;
+    private final EventArchive archive;
+    private final LiveStats liveStats;
+    private final EventStatWriter writer;
+    private final EventRollupWriter rollupWriter;
+    private final SketchRollupWriter sketchWriter;
+    private final ShadowTables shadowTables;
+    private final FlushedOffsetWriter offsetWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final long maxEvents;
+    // Only the latest ack per partition is kept: acknowledging it commits everything before it
+    private final Map<TopicPartition, PendingAck> pendingAcks = new ConcurrentHashMap<>();
+    private final AtomicLong sinceFlush = new AtomicLong();
+    // Listeners share the read side; a flush takes the write side to snapshot counts and acks together
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    public AnalyticsFlusher(EventCounters counters, RollupWindows rollups, SketchWindows sketches, EventArchive archive,
+            LiveStats liveStats,
+            EventStatWriter writer, EventRollupWriter rollupWriter, SketchRollupWriter sketchWriter,
+            ShadowTables shadowTables, FlushedOffsetWriter offsetWriter, TransactionTemplate transactionTemplate,
+            @Value("${app.analytics.flush.max-events:5000}") long maxEvents) {
+        this.counters = counters;
+        this.rollups = rollups;
+        this.sketches = sketches;
+        this.archive = archive;
+        this.liveStats = liveStats;
+        this.writer = writer;
+        this.rollupWriter = rollupWriter;
+        this.sketchWriter = sketchWriter;
+        this.shadowTables = shadowTables;
+        this.offsetWriter = offsetWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.maxEvents = maxEvents;
+    }
+
+    /**
+     * @param event the parsed envelope, or null when the message could not be parsed; it then
+     *              only counts towards its topic
+     * @param order the payload of an {@code ORDER_CREATED_V1} event, otherwise null
+     */
+    public void record(String topic, BaseEvent<JsonNode> event, OrderCreatedEvent order,
+            TopicPartition partition, long offset, Acknowledgment ack) {
+        snapshotLock.readLock().lock();
+        try {
+            counters.increment(topic);
+            if (event != null && event.eventType() != null && event.timestamp() != null) {
+                rollups.record(event.eventType(), event.timestamp());
+                archive.append(event);
+                if (order != null) {
+                    sketches.record(order, event.timestamp());
+                }
+            }
+            pendingAcks.put(partition, new PendingAck(offset + 1, ack));
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        if (sinceFlush.incrementAndGet() >= maxEvents) {
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.flush.interval-ms:1000}")
+    public synchronized void flush() {
+        Map<String, Long> deltas;
+        Map<RollupKey, Long> rollupDeltas;
+        Map<LocalDateTime, WindowSketches> sketchDeltas;
+        List<ArchivedEvent> archived;
+        Map<TopicPartition, PendingAck> acks;
+        snapshotLock.writeLock().lock();
+        try {
+            deltas = counters.drain();
+            rollupDeltas = rollups.drain();
+            sketchDeltas = sketches.drain();
+            archived = archive.drain();
+            acks = new HashMap<>(pendingAcks);
+            pendingAcks.clear();
+            sinceFlush.set(0);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        if (deltas.isEmpty() && rollupDeltas.isEmpty() && sketchDeltas.isEmpty() && archived.isEmpty()
+                && acks.isEmpty()) {
+            return;
+        }
+
+        try {
+            archive.write(archived);
+        } catch (UncheckedIOException e) {
+            log.error("Failed to archive {} events, keeping them for the next flush", archived.size(), e);
+            archive.restore(archived);
+            restore(deltas, rollupDeltas, sketchDeltas, acks);
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // A backfill swapping the tables meanwhile would drop these counts
+                shadowTables.lockShared();
+                writer.addCounts(deltas);
+                rollupWriter.addCounts(rollupDeltas);
+                writeSketches(sketchDeltas);
+                offsetWriter.advance(nextOffsets(acks));
+            });
+        } catch (DataAccessException | TransactionException e) {
+            // The archived segments stay; a redelivery after a crash would archive them again
+            log.error("Failed to flush event counts {}, keeping them for the next flush", deltas, e);
+            restore(deltas, rollupDeltas, sketchDeltas, acks);
+            return;
+        }
+        acks.values().forEach(pending -> pending.ack().acknowledge());
+        liveStats.onFlushed(deltas, rollupDeltas);
+        log.debug("Flushed event counts {}", deltas);
+    }
+
+    private void restore(Map<String, Long> deltas, Map<RollupKey, Long> rollupDeltas,
+            Map<LocalDateTime, WindowSketches> sketchDeltas, Map<TopicPartition, PendingAck> acks) {
+        counters.restore(deltas);
+        rollups.restore(rollupDeltas);
+        sketches.restore(sketchDeltas);
+        // A newer ack recorded meanwhile already covers the older one
+        acks.forEach(pendingAcks::putIfAbsent);
+    }
+
+    private static Map<TopicPartition, Long> nextOffsets(Map<TopicPartition, PendingAck> acks) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        acks.forEach((partition, pending) -> offsets.put(partition, pending.nextOffset()));
+        return offsets;
+    }
+
+    private void writeSketches(Map<LocalDateTime, WindowSketches> hours) {
+        sketchWriter.mergeAll(SketchRollupWriter.TABLE, Granularity.HOUR, hours);
+        sketchWriter.mergeAll(SketchRollupWriter.TABLE, Granularity.DAY, sketches.foldDays(hours));
+    }
+
+    /**
+     * Runs before the listener containers stop, so the final acks can still be committed.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private record PendingAck(long nextOffset, Acknowledgment ack) {
+    }
+}
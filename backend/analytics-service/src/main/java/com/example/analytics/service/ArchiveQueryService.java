@@ -0,0 +1,139 @@
+package com.example.analytics.service;
+
+import com.example.analytics.archive.EventArchive;
+import com.example.analytics.archive.Segment;
+import com.example.analytics.dto.ArchiveAggregate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates one numeric column of the archive, optionally grouped by another column, without
+ * touching Postgres. Segments are scanned in parallel; each reads only the two columns involved
+ * and groups on dictionary codes before mapping them back to values.
+ */
+@Service
+public class ArchiveQueryService {
+
+    private final EventArchive archive;
+    private final int maxQueryDays;
+
+    public ArchiveQueryService(EventArchive archive,
+            @Value("${app.analytics.archive.max-query-days:366}") int maxQueryDays) {
+        this.archive = archive;
+        this.maxQueryDays = maxQueryDays;
+    }
+
+    /**
+     * @param groupBy column to group on, or null for one total
+     * @throws IllegalArgumentException when {@code from} is after {@code to} or the range spans
+     *                                  more than {@code max-query-days} days
+     */
+    public ArchiveAggregate aggregate(String eventType, String column, String groupBy, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxQueryDays) {
+            throw new IllegalArgumentException("The range may span at most " + maxQueryDays + " days");
+        }
+        try {
+            return archive.scan(eventType, from, to, segments -> {
+                Partial total = segments.parallelStream()
+                        .map(path -> scanSegment(path, column, groupBy))
+                        .reduce(new Partial(), Partial::merge);
+                List<ArchiveAggregate.Group> groups = total.groups.entrySet().stream()
+                        .map(entry -> entry.getValue().toGroup(entry.getKey()))
+                        .sorted(Comparator.comparing(ArchiveAggregate.Group::key,
+                                Comparator.nullsLast(Comparator.naturalOrder())))
+                        .toList();
+                return new ArchiveAggregate(eventType, column, groupBy, from, to,
+                        segments.size(), total.rows, groups);
+            });
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Failed to scan event archive: " + e.getMessage(), e);
+        }
+    }
+
+    private static Partial scanSegment(Path path, String column, String groupBy) {
+        Partial partial = new Partial();
+        try {
+            Segment segment = Segment.open(path);
+            partial.rows = segment.rowCount();
+            double[] values = segment.numbers(column);
+            if (values == null) {
+                return partial;
+            }
+            Segment.StringColumn groups = groupBy == null ? null : segment.strings(groupBy);
+            // Indexed by dictionary code + 1, so slot 0 collects rows without a group value
+            int slots = groups == null ? 1 : groups.dictionary().length + 1;
+            Stats[] stats = new Stats[slots];
+            for (int row = 0; row < values.length; row++) {
+                if (Double.isNaN(values[row])) {
+                    continue;
+                }
+                int slot = groups == null ? 0 : groups.codes()[row] + 1;
+                if (stats[slot] == null) {
+                    stats[slot] = new Stats();
+                }
+                stats[slot].add(values[row]);
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                if (stats[slot] != null) {
+                    partial.groups.put(slot == 0 ? null : groups.dictionary()[slot - 1], stats[slot]);
+                }
+            }
+            return partial;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class Partial {
+        private final Map<String, Stats> groups = new HashMap<>();
+        private long rows;
+
+        Partial merge(Partial other) {
+            Partial merged = new Partial();
+            merged.rows = rows + other.rows;
+            merged.groups.putAll(groups);
+            other.groups.forEach((key, stats) -> merged.groups.merge(key, stats, Stats::merge));
+            return merged;
+        }
+    }
+
+    private static class Stats {
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        void add(double value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        Stats merge(Stats other) {
+            Stats merged = new Stats();
+            merged.count = count + other.count;
+            merged.sum = sum + other.sum;
+            merged.min = Math.min(min, other.min);
+            merged.max = Math.max(max, other.max);
+            return merged;
+        }
+
+        ArchiveAggregate.Group toGroup(String key) {
+            return new ArchiveAggregate.Group(key, count, sum, min, max);
+        }
+    }
+}
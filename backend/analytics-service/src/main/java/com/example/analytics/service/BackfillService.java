@@ -0,0 +1,413 @@
+package com.example.analytics.service;
+
+import com.example.analytics.consumer.AnalyticsConsumer;
+import com.example.analytics.domain.BackfillStatus;
+import com.example.analytics.domain.Granularity;
+import com.example.analytics.domain.RollupKey;
+import com.example.analytics.dto.BackfillProgress;
+import com.example.analytics.repository.EventRollupWriter;
+import com.example.analytics.repository.EventStatWriter;
+import com.example.analytics.repository.FlushedOffsetWriter;
+import com.example.analytics.repository.ShadowTables;
+import com.example.analytics.repository.SketchRollupWriter;
+import com.example.analytics.sketch.WindowSketches;
+import com.example.common.constants.KafkaConstants;
+import com.example.common.event.BaseEvent;
+import com.example.common.event.OrderCreatedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rebuilds {@code event_stats}, {@code event_rollups} and {@code sketch_rollups} by replaying the
+ * topics with a consumer group of its own. Counts go into shadow tables in large batches while
+ * the live tables keep serving.
+ *
+ * <p>The replay stops where the live tables' counts end, as recorded in {@code flushed_offsets}
+ * by every flush, so every record lands in exactly one table set: the backfill follows those
+ * offsets until it has caught up, then takes the {@link ShadowTables#lockExclusive() swap lock},
+ * which holds off every replica's flushes, reads the short tail up to the offsets recorded by
+ * then and renames the shadow tables into place in the same transaction.
+ */
+@Service
+public class BackfillService {
+    private static final Logger log = LoggerFactory.getLogger(BackfillService.class);
+
+    private static final String GROUP_ID = "analytics-backfill-group";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+    private final KafkaAdmin kafkaAdmin;
+    private final ShadowTables shadowTables;
+    private final FlushedOffsetWriter offsetWriter;
+    private final EventStatWriter statWriter;
+    private final EventRollupWriter rollupWriter;
+    private final SketchRollupWriter sketchWriter;
+    private final SketchWindows liveSketches;
+    private final LiveStats liveStats;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int maxPollRecords;
+    private final int fetchMinBytes;
+    private final int fetchMaxWaitMs;
+    private final int maxPartitionFetchBytes;
+    private final long batchRecords;
+    private final long refreshOffsetsMs;
+    private final int ringMinutes;
+    private final AtomicReference<BackfillRun> current = new AtomicReference<>();
+
+    public BackfillService(ConsumerFactory<?, ?> consumerFactory, KafkaAdmin kafkaAdmin,
+            ShadowTables shadowTables, FlushedOffsetWriter offsetWriter,
+            EventStatWriter statWriter, EventRollupWriter rollupWriter, SketchRollupWriter sketchWriter,
+            SketchWindows liveSketches, LiveStats liveStats, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+            @Value("${app.analytics.backfill.max-poll-records:5000}") int maxPollRecords,
+            @Value("${app.analytics.backfill.fetch-min-bytes:1048576}") int fetchMinBytes,
+            @Value("${app.analytics.backfill.fetch-max-wait-ms:500}") int fetchMaxWaitMs,
+            @Value("${app.analytics.backfill.max-partition-fetch-bytes:8388608}") int maxPartitionFetchBytes,
+            @Value("${app.analytics.backfill.batch-records:50000}") long batchRecords,
+            @Value("${app.analytics.backfill.refresh-offsets-ms:5000}") long refreshOffsetsMs,
+            @Value("${app.analytics.rollups.ring-minutes:120}") int ringMinutes) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaAdmin = kafkaAdmin;
+        this.shadowTables = shadowTables;
+        this.offsetWriter = offsetWriter;
+        this.statWriter = statWriter;
+        this.rollupWriter = rollupWriter;
+        this.sketchWriter = sketchWriter;
+        this.liveSketches = liveSketches;
+        this.liveStats = liveStats;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.maxPollRecords = maxPollRecords;
+        this.fetchMinBytes = fetchMinBytes;
+        this.fetchMaxWaitMs = fetchMaxWaitMs;
+        this.maxPartitionFetchBytes = maxPartitionFetchBytes;
+        this.batchRecords = batchRecords;
+        this.refreshOffsetsMs = refreshOffsetsMs;
+        this.ringMinutes = ringMinutes;
+    }
+
+    /**
+     * Starts a backfill of everything the topics retain on its own thread. There is no partial
+     * backfill: the swap replaces whole tables, and {@code event_stats} has no time to cut at.
+     *
+     * @throws IllegalStateException when a backfill is already running
+     */
+    public BackfillProgress start() {
+        BackfillRun previous = current.get();
+        if (previous != null && previous.isActive()) {
+            throw new IllegalStateException("A backfill is already running");
+        }
+        BackfillRun run = new BackfillRun();
+        if (!current.compareAndSet(previous, run)) {
+            throw new IllegalStateException("A backfill is already running");
+        }
+        // A platform thread: the Kafka consumer blocks inside synchronized code
+        Thread.ofPlatform().name("analytics-backfill").daemon().start(() -> execute(run));
+        return run.progress();
+    }
+
+    /**
+     * @return the running or last backfill, or null if there was none since startup
+     */
+    public BackfillProgress progress() {
+        BackfillRun run = current.get();
+        return run == null ? null : run.progress();
+    }
+
+    public BackfillProgress cancel() {
+        BackfillRun run = current.get();
+        if (run == null) {
+            return null;
+        }
+        run.cancelled = true;
+        return run.progress();
+    }
+
+    private void execute(BackfillRun run) {
+        log.info("Starting analytics backfill from the earliest offsets");
+        try (Consumer<String, String> consumer = createConsumer();
+                Admin admin = Admin.create(kafkaAdmin.getConfigurationProperties())) {
+            shadowTables.recreate();
+            List<TopicPartition> partitions = partitions(consumer);
+            consumer.assign(partitions);
+            run.starts = new HashMap<>(consumer.beginningOffsets(partitions));
+            run.starts.forEach(consumer::seek);
+
+            replay(consumer, admin, run, liveOffsets(admin, run.starts), true);
+            if (run.cancelled) {
+                finish(run, BackfillStatus.CANCELLED, null);
+                return;
+            }
+            swap(consumer, admin, run);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(run, BackfillStatus.FAILED, "Interrupted");
+        } catch (RuntimeException | ExecutionException e) {
+            log.error("Analytics backfill failed", e);
+            finish(run, BackfillStatus.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Holds off every replica's flushes just long enough to read the records the live tables
+     * already count and rename the tables, so neither side counts a record the other one has.
+     */
+    private void swap(Consumer<String, String> consumer, Admin admin, BackfillRun run)
+            throws InterruptedException, ExecutionException {
+        run.status = BackfillStatus.SWAPPING;
+        // Catch up once more without the lock, leaving only what arrives meanwhile for under it
+        replay(consumer, admin, run, liveOffsets(admin, run.starts), false);
+        // The shadow batches written here join this transaction and its lock
+        Boolean swapped = run.cancelled ? Boolean.FALSE
+                : transactionTemplate.execute(status -> replayAndSwap(consumer, admin, run));
+        if (!Boolean.TRUE.equals(swapped)) {
+            finish(run, BackfillStatus.CANCELLED, null);
+            return;
+        }
+        liveStats.refresh();
+        run.finishedAt = Instant.now();
+        run.status = BackfillStatus.COMPLETED;
+        log.info("Analytics backfill completed: {} records replayed", run.read.get());
+    }
+
+    private boolean replayAndSwap(Consumer<String, String> consumer, Admin admin, BackfillRun run) {
+        shadowTables.lockExclusive();
+        try {
+            // No flush can commit now, so these offsets are final until the swap commits
+            replay(consumer, admin, run, liveOffsets(admin, run.starts), false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to read the live consumer offsets", e);
+        }
+        if (run.cancelled) {
+            return false;
+        }
+        shadowTables.swap();
+        return true;
+    }
+
+    /**
+     * Reads up to the target offsets, writing a batch to the shadow tables every
+     * {@code batch-records}. While {@code follow} is set the targets are refreshed from the live
+     * group until the backfill has caught up with it.
+     */
+    private void replay(Consumer<String, String> consumer, Admin admin, BackfillRun run,
+            Map<TopicPartition, Long> targets, boolean follow) throws InterruptedException, ExecutionException {
+        Batch batch = new Batch();
+        long refreshedAt = System.currentTimeMillis();
+        while (!run.cancelled) {
+            if (follow && System.currentTimeMillis() - refreshedAt >= refreshOffsetsMs) {
+                targets = liveOffsets(admin, run.starts);
+                refreshedAt = System.currentTimeMillis();
+            }
+            run.total.set(remaining(run.starts, targets));
+
+            List<TopicPartition> behind = new ArrayList<>();
+            List<TopicPartition> done = new ArrayList<>();
+            for (TopicPartition partition : targets.keySet()) {
+                (consumer.position(partition) < targets.get(partition) ? behind : done).add(partition);
+            }
+            if (behind.isEmpty()) {
+                break;
+            }
+            consumer.pause(done);
+            consumer.resume(behind);
+
+            ConsumerRecords<String, String> records = consumer.poll(POLL_TIMEOUT);
+            for (TopicPartition partition : records.partitions()) {
+                long target = targets.get(partition);
+                for (ConsumerRecord<String, String> record : records.records(partition)) {
+                    if (record.offset() >= target) {
+                        // The live listener owns this record; rewind so the next pass starts here
+                        consumer.seek(partition, record.offset());
+                        break;
+                    }
+                    batch.add(record);
+                    run.read.incrementAndGet();
+                }
+            }
+            if (batch.size >= batchRecords) {
+                batch.write();
+                consumer.commitSync();
+            }
+        }
+        batch.write();
+        consumer.commitSync();
+    }
+
+    private Consumer<String, String> createConsumer() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+        overrides.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, String.valueOf(fetchMinBytes));
+        overrides.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, String.valueOf(fetchMaxWaitMs));
+        overrides.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, String.valueOf(maxPartitionFetchBytes));
+        @SuppressWarnings("unchecked")
+        Consumer<String, String> consumer = (Consumer<String, String>) consumerFactory
+                .createConsumer(GROUP_ID, "analytics-backfill", null, overrides);
+        return consumer;
+    }
+
+    private static List<TopicPartition> partitions(Consumer<String, String> consumer) {
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (String topic : AnalyticsConsumer.TOPICS) {
+            List<PartitionInfo> infos = consumer.partitionsFor(topic);
+            if (infos != null) {
+                infos.forEach(info -> partitions.add(new TopicPartition(info.topic(), info.partition())));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Where the live tables' counts end. A partition not yet flushed since {@code flushed_offsets}
+     * was introduced falls back to the live group's committed offset, which its next flush can
+     * only move after recording it there; one never committed has nothing counted yet.
+     */
+    private Map<TopicPartition, Long> liveOffsets(Admin admin, Map<TopicPartition, Long> starts)
+            throws InterruptedException, ExecutionException {
+        Map<TopicPartition, Long> flushed = offsetWriter.findAll();
+        Map<TopicPartition, OffsetAndMetadata> committed = admin
+                .listConsumerGroupOffsets(AnalyticsConsumer.GROUP_ID)
+                .partitionsToOffsetAndMetadata()
+                .get();
+        Map<TopicPartition, Long> targets = new HashMap<>();
+        starts.forEach((partition, start) -> {
+            OffsetAndMetadata offset = committed.get(partition);
+            targets.put(partition, flushed.getOrDefault(partition, offset != null ? offset.offset() : start));
+        });
+        return targets;
+    }
+
+    private static long remaining(Map<TopicPartition, Long> starts, Map<TopicPartition, Long> targets) {
+        long total = 0;
+        for (Map.Entry<TopicPartition, Long> target : targets.entrySet()) {
+            total += Math.max(0, target.getValue() - starts.get(target.getKey()));
+        }
+        return total;
+    }
+
+    private void finish(BackfillRun run, BackfillStatus status, String error) {
+        try {
+            shadowTables.drop();
+        } catch (RuntimeException e) {
+            log.warn("Failed to drop backfill shadow tables", e);
+        }
+        run.error = error;
+        run.finishedAt = Instant.now();
+        run.status = status;
+        log.info("Analytics backfill {} after {} records", status, run.read.get());
+    }
+
+    /**
+     * Counts for the records read since the last write, aggregated the same way the live flush does.
+     */
+    private class Batch {
+        private final EventCounters counters = new EventCounters();
+        private final RollupWindows rollups = new RollupWindows(ringMinutes);
+        private final SketchWindows sketches = liveSketches.detached();
+        private long size;
+
+        void add(ConsumerRecord<String, String> record) {
+            size++;
+            counters.increment(record.topic());
+            BaseEvent<JsonNode> event;
+            try {
+                event = objectMapper.readValue(record.value(), new TypeReference<>() {});
+            } catch (JsonProcessingException e) {
+                return;
+            }
+            if (event.eventType() == null || event.timestamp() == null) {
+                return;
+            }
+            rollups.record(event.eventType(), event.timestamp());
+            if (KafkaConstants.ORDER_CREATED_V1.equals(event.eventType()) && event.payload() != null) {
+                try {
+                    sketches.record(objectMapper.treeToValue(event.payload(), OrderCreatedEvent.class),
+                            event.timestamp());
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    log.debug("Skipping unreadable order payload at {}-{}@{}",
+                            record.topic(), record.partition(), record.offset());
+                }
+            }
+        }
+
+        void write() {
+            if (size == 0) {
+                return;
+            }
+            Map<String, Long> stats = counters.drain();
+            Map<RollupKey, Long> minutes = rollups.drain();
+            Map<LocalDateTime, WindowSketches> hours = sketches.drain();
+            transactionTemplate.executeWithoutResult(status -> {
+                statWriter.addCounts(ShadowTables.shadowOf(EventStatWriter.TABLE), stats);
+                rollupWriter.addCounts(ShadowTables.shadowOf(EventRollupWriter.TABLE), minutes);
+                String sketchTable = ShadowTables.shadowOf(SketchRollupWriter.TABLE);
+                sketchWriter.mergeAll(sketchTable, Granularity.HOUR, hours);
+                sketchWriter.mergeAll(sketchTable, Granularity.DAY, sketches.foldDays(hours));
+            });
+            size = 0;
+        }
+    }
+
+    private static class BackfillRun {
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private volatile Map<TopicPartition, Long> starts = Map.of();
+        private volatile BackfillStatus status = BackfillStatus.REPLAYING;
+        private volatile Instant finishedAt;
+        private volatile String error;
+        private volatile boolean cancelled;
+
+        boolean isActive() {
+            return status == BackfillStatus.REPLAYING || status == BackfillStatus.SWAPPING;
+        }
+
+        BackfillProgress progress() {
+            long readRecords = read.get();
+            long totalRecords = Math.max(total.get(), readRecords);
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+            double rate = readRecords / seconds;
+            Long eta = null;
+            if (isActive() && rate > 0) {
+                eta = Math.round((totalRecords - readRecords) / rate);
+            }
+            double percent = totalRecords == 0 ? (isActive() ? 0 : 100) : 100.0 * readRecords / totalRecords;
+            return new BackfillProgress(status, startedAt, finishedAt, readRecords, totalRecords,
+                    percent, rate, eta, error);
+        }
+    }
+}
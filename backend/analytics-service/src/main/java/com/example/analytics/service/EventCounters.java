@@ -0,0 +1,43 @@
+package com.example.analytics.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-topic event counts not yet written to {@code event_stats}. {@link LongAdder} stripes the
+ * increments so concurrent listener threads do not contend on one counter.
+ */
+@Component
+public class EventCounters {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public void increment(String eventType) {
+        counters.computeIfAbsent(eventType, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Takes the counts accumulated since the last drain and resets them.
+     */
+    public Map<String, Long> drain() {
+        Map<String, Long> deltas = new HashMap<>();
+        counters.forEach((eventType, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                deltas.put(eventType, delta);
+            }
+        });
+        return deltas;
+    }
+
+    /**
+     * Puts drained counts back after a failed flush so the next one writes them.
+     */
+    public void restore(Map<String, Long> deltas) {
+        deltas.forEach((eventType, delta) -> counters.computeIfAbsent(eventType, key -> new LongAdder()).add(delta));
+    }
+}
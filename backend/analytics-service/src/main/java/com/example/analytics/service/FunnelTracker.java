@@ -0,0 +1,204 @@
+package com.example.analytics.service;
+
+import com.example.analytics.domain.OrderJourney;
+import com.example.analytics.domain.SagaStage;
+import com.example.analytics.dto.FunnelSnapshot;
+import com.example.common.event.InventoryEvent;
+import com.example.common.event.OrderCreatedEvent;
+import com.example.common.event.PaymentEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Follows orders through created, inventory reserved and paid or failed, joining the events of
+ * the three topics by orderId. Journeys live in an insertion-ordered map capped by size and age,
+ * and each stage is counted once per order, so redelivered events do not inflate the funnel.
+ *
+ * <p>The same journeys give the latency of each saga hop, recorded in {@link SagaLatencies} when
+ * the second event of a hop arrives, whichever order the topics deliver them in.
+ *
+ * <p>Counts cover the events seen since this instance started; they are not persisted.
+ */
+@Service
+public class FunnelTracker {
+    private static final Logger log = LoggerFactory.getLogger(FunnelTracker.class);
+
+    private final SagaLatencies latencies;
+    private final int maxOrders;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, OrderJourney> journeys = new LinkedHashMap<>();
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder inventoryReserved = new LongAdder();
+    private final LongAdder inventoryFailed = new LongAdder();
+    private final LongAdder paid = new LongAdder();
+    private final LongAdder paymentFailed = new LongAdder();
+    private final Map<String, LongAdder> orderedRevenue = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> paidRevenue = new ConcurrentHashMap<>();
+
+    public FunnelTracker(SagaLatencies latencies,
+            @Value("${app.analytics.funnel.max-orders:100000}") int maxOrders,
+            @Value("${app.analytics.funnel.ttl:24h}") Duration ttl) {
+        this.latencies = latencies;
+        this.maxOrders = maxOrders;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    public void onOrderCreated(LocalDateTime timestamp, OrderCreatedEvent payload) {
+        String currency = payload.currency() != null ? payload.currency() : "USD";
+        long amountMinor = toMinor(payload.orderId(), payload.totalAmount(), currency);
+        Boolean paidBefore;
+        LocalDateTime inventoryAt;
+        LocalDateTime paymentAt;
+        synchronized (journeys) {
+            OrderJourney journey = journey(payload.orderId());
+            if (journey.isCreated()) {
+                return;
+            }
+            journey.created(timestamp, currency, amountMinor);
+            paidBefore = journey.getPaid();
+            inventoryAt = journey.getInventoryAt();
+            paymentAt = journey.getPaymentAt();
+        }
+        latencies.record(SagaStage.ORDER_TO_INVENTORY, timestamp, inventoryAt);
+        latencies.record(SagaStage.ORDER_TO_PAYMENT, timestamp, paymentAt);
+        created.increment();
+        orderedRevenue.computeIfAbsent(currency, key -> new LongAdder()).add(amountMinor);
+        if (Boolean.TRUE.equals(paidBefore)) {
+            // The payment overtook the order event; its revenue is only known now
+            paidRevenue.computeIfAbsent(currency, key -> new LongAdder()).add(amountMinor);
+        }
+    }
+
+    public void onInventory(LocalDateTime timestamp, InventoryEvent payload) {
+        boolean reserved = payload.status() == InventoryEvent.InventoryStatus.RESERVED;
+        LocalDateTime createdAt;
+        LocalDateTime paymentAt;
+        synchronized (journeys) {
+            OrderJourney journey = journey(payload.orderId());
+            if (journey.getInventoryReserved() != null) {
+                return;
+            }
+            journey.inventory(timestamp, reserved);
+            createdAt = journey.getCreatedAt();
+            paymentAt = journey.getPaymentAt();
+        }
+        latencies.record(SagaStage.ORDER_TO_INVENTORY, createdAt, timestamp);
+        latencies.record(SagaStage.INVENTORY_TO_PAYMENT, timestamp, paymentAt);
+        (reserved ? inventoryReserved : inventoryFailed).increment();
+    }
+
+    public void onPayment(LocalDateTime timestamp, PaymentEvent payload) {
+        boolean succeeded = payload.status() == PaymentEvent.PaymentStatus.SUCCEEDED;
+        String currency;
+        long amountMinor;
+        LocalDateTime createdAt;
+        LocalDateTime inventoryAt;
+        synchronized (journeys) {
+            OrderJourney journey = journey(payload.orderId());
+            if (journey.getPaid() != null) {
+                return;
+            }
+            journey.payment(timestamp, succeeded);
+            currency = journey.getCurrency();
+            amountMinor = journey.getAmountMinor();
+            createdAt = journey.getCreatedAt();
+            inventoryAt = journey.getInventoryAt();
+        }
+        latencies.record(SagaStage.ORDER_TO_PAYMENT, createdAt, timestamp);
+        latencies.record(SagaStage.INVENTORY_TO_PAYMENT, inventoryAt, timestamp);
+        (succeeded ? paid : paymentFailed).increment();
+        if (succeeded && currency != null) {
+            paidRevenue.computeIfAbsent(currency, key -> new LongAdder()).add(amountMinor);
+        }
+    }
+
+    /**
+     * Looks up or starts a journey, evicting the oldest ones past the age or size limit.
+     * Callers hold the map's lock.
+     */
+    private OrderJourney journey(String orderId) {
+        long now = System.currentTimeMillis();
+        Iterator<OrderJourney> oldest = journeys.values().iterator();
+        while (oldest.hasNext()) {
+            OrderJourney journey = oldest.next();
+            if (journeys.size() < maxOrders && now - journey.getTrackedSince() < ttlMillis) {
+                break;
+            }
+            oldest.remove();
+        }
+        return journeys.computeIfAbsent(orderId, id -> new OrderJourney(id, now));
+    }
+
+    public FunnelSnapshot snapshot() {
+        long createdCount = created.sum();
+        long reservedCount = inventoryReserved.sum();
+        long paidCount = paid.sum();
+        long paymentFailedCount = paymentFailed.sum();
+        int tracked;
+        synchronized (journeys) {
+            tracked = journeys.size();
+        }
+        return new FunnelSnapshot(
+                createdCount,
+                reservedCount,
+                inventoryFailed.sum(),
+                paidCount,
+                paymentFailedCount,
+                rate(reservedCount, createdCount),
+                rate(paidCount, paidCount + paymentFailedCount),
+                rate(paidCount, createdCount),
+                toAmounts(orderedRevenue),
+                toAmounts(paidRevenue),
+                tracked);
+    }
+
+    private static double rate(long part, long whole) {
+        return whole == 0 ? 0 : (double) part / whole;
+    }
+
+    /**
+     * The amount in minor units, or 0 when it is missing or does not fit in a long, so one absurd
+     * amount is left out of the revenue instead of failing the event.
+     */
+    private static long toMinor(String orderId, BigDecimal amount, String currency) {
+        if (amount == null) {
+            return 0;
+        }
+        try {
+            return amount.movePointRight(fractionDigits(currency)).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (ArithmeticException e) {
+            log.warn("Leaving out-of-range amount {} {} of order {} out of the revenue", amount, currency, orderId);
+            return 0;
+        }
+    }
+
+    private static Map<String, BigDecimal> toAmounts(Map<String, LongAdder> minorByCurrency) {
+        Map<String, BigDecimal> amounts = new TreeMap<>();
+        minorByCurrency.forEach((currency, minor) ->
+                amounts.put(currency, BigDecimal.valueOf(minor.sum(), fractionDigits(currency))));
+        return amounts;
+    }
+
+    private static int fractionDigits(String currency) {
+        try {
+            return Math.max(Currency.getInstance(currency).getDefaultFractionDigits(), 0);
+        } catch (IllegalArgumentException e) {
+            return 2;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.analytics.service;
+
+import com.example.analytics.domain.EventStat;
+import com.example.analytics.domain.RollupKey;
+import com.example.analytics.dto.LiveTick;
+import com.example.analytics.repository.EventStatRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory view of {@code event_stats} so dashboards never read the database. Totals are loaded
+ * in the background and advanced by every successful flush; the periodic reload picks up what
+ * other replicas or a backfill wrote, so any drift lasts at most one refresh interval.
+ */
+@Component
+public class LiveStats {
+    private static final Logger log = LoggerFactory.getLogger(LiveStats.class);
+
+    private final EventStatRepository repository;
+    private final Map<String, Long> totals = new HashMap<>();
+    private final Map<String, Long> tickDeltas = new HashMap<>();
+    private final Map<RollupKey, Long> tickMinutes = new HashMap<>();
+    private long sequence;
+
+    public LiveStats(EventStatRepository repository) {
+        this.repository = repository;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.analytics.live.refresh-ms:30000}")
+    public void refresh() {
+        List<EventStat> stats;
+        try {
+            stats = repository.findAll();
+        } catch (DataAccessException e) {
+            log.warn("Failed to reload event totals, serving the in-memory ones", e);
+            return;
+        }
+        synchronized (this) {
+            totals.clear();
+            stats.forEach(stat -> totals.put(stat.getEventType(), stat.getCount()));
+        }
+    }
+
+    /**
+     * Called once a flush has committed, with the deltas it wrote.
+     */
+    public synchronized void onFlushed(Map<String, Long> deltas, Map<RollupKey, Long> minutes) {
+        deltas.forEach((eventType, delta) -> {
+            totals.merge(eventType, delta, Long::sum);
+            tickDeltas.merge(eventType, delta, Long::sum);
+        });
+        minutes.forEach((key, delta) -> tickMinutes.merge(key, delta, Long::sum));
+    }
+
+    public synchronized List<EventStat> stats() {
+        return totals.entrySet().stream()
+                .map(entry -> new EventStat(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(EventStat::getEventType))
+                .toList();
+    }
+
+    /**
+     * Takes the deltas coalesced since the previous tick; null when nothing changed.
+     */
+    public synchronized LiveTick nextTick() {
+        if (tickDeltas.isEmpty() && tickMinutes.isEmpty()) {
+            return null;
+        }
+        List<LiveTick.MinuteDelta> minutes = tickMinutes.entrySet().stream()
+                .map(entry -> new LiveTick.MinuteDelta(entry.getKey().minute(), entry.getKey().eventType(), entry.getValue()))
+                .sorted(Comparator.comparing(LiveTick.MinuteDelta::minute).thenComparing(LiveTick.MinuteDelta::eventType))
+                .toList();
+        LiveTick tick = new LiveTick(++sequence, Instant.now(), new TreeMap<>(totals), new TreeMap<>(tickDeltas), minutes);
+        tickDeltas.clear();
+        tickMinutes.clear();
+        return tick;
+    }
+
+    /**
+     * Totals alone, for the first frame a new subscriber receives.
+     */
+    public synchronized LiveTick current() {
+        return new LiveTick(sequence, Instant.now(), new TreeMap<>(totals), Map.of(), List.of());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.analytics.service;
+
+import com.example.analytics.dto.LiveTick;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Pushes {@link LiveStats} ticks to dashboards over server-sent events. Each tick is serialised
+ * once into a single frame that every subscriber receives, however many are connected; ticks
+ * with nothing new send a heartbeat comment at most every {@code heartbeat-ms} instead.
+ */
+@Component
+public class LiveStatsBroadcaster {
+    private static final Logger log = LoggerFactory.getLogger(LiveStatsBroadcaster.class);
+
+    private final LiveStats liveStats;
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMs;
+    private final long heartbeatMs;
+    private final Set<SseEmitter> emitters = new CopyOnWriteArraySet<>();
+    private long lastSentAt = System.currentTimeMillis();
+
+    public LiveStatsBroadcaster(LiveStats liveStats, ObjectMapper objectMapper,
+            @Value("${app.analytics.live.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${app.analytics.live.heartbeat-ms:15000}") long heartbeatMs) {
+        this.liveStats = liveStats;
+        this.objectMapper = objectMapper;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.heartbeatMs = heartbeatMs;
+    }
+
+    public SseEmitter subscribe() throws IOException {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        emitter.send(frame(liveStats.current()));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    @Scheduled(fixedRateString = "${app.analytics.live.tick-ms:1000}")
+    public void tick() throws JsonProcessingException {
+        LiveTick tick = liveStats.nextTick();
+        long now = System.currentTimeMillis();
+        if (emitters.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> frame;
+        if (tick != null) {
+            frame = frame(tick);
+        } else if (now - lastSentAt >= heartbeatMs) {
+            frame = SseEmitter.event().comment("heartbeat").build();
+        } else {
+            return;
+        }
+        lastSentAt = now;
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(frame);
+            } catch (IOException | IllegalStateException e) {
+                // The dashboard went away; completing releases the async request
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+                log.debug("Dropped live stats subscriber", e);
+            }
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(LiveTick tick) throws JsonProcessingException {
+        return SseEmitter.event()
+                .name("stats")
+                .id(Long.toString(tick.sequence()))
+                .data(objectMapper.writeValueAsString(tick), MediaType.APPLICATION_JSON)
+                .build();
+    }
+}
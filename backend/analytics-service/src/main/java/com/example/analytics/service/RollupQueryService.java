@@ -0,0 +1,67 @@
+package com.example.analytics.service;
+
+import com.example.analytics.domain.Granularity;
+import com.example.analytics.dto.RollupPoint;
+import com.example.analytics.dto.RollupTotal;
+import com.example.analytics.repository.EventRollupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+public class RollupQueryService {
+
+    private final EventRollupRepository repository;
+
+    public RollupQueryService(EventRollupRepository repository) {
+        this.repository = repository;
+    }
+
+    public List<RollupPoint> series(String eventType, Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        return repository.findRange(granularity, eventType, granularity.floor(from), to).stream()
+                .map(r -> new RollupPoint(r.getId().getBucketStart(), r.getCount()))
+                .toList();
+    }
+
+    /**
+     * Counts events in [from, to) to the minute. The range is split into leading minutes, hours,
+     * whole days, trailing hours and trailing minutes, so at most five range sums are read no
+     * matter how long the range is.
+     */
+    public RollupTotal total(String eventType, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = Granularity.MINUTE.floor(from);
+        LocalDateTime end = Granularity.MINUTE.floor(to);
+        if (!start.isBefore(end)) {
+            return new RollupTotal(eventType, start, end, 0);
+        }
+
+        LocalDateTime hoursStart = Granularity.HOUR.ceil(start);
+        LocalDateTime hoursEnd = Granularity.HOUR.floor(end);
+        if (!hoursStart.isBefore(hoursEnd)) {
+            return new RollupTotal(eventType, start, end, sum(Granularity.MINUTE, eventType, start, end));
+        }
+
+        long count = sum(Granularity.MINUTE, eventType, start, hoursStart)
+                + sum(Granularity.MINUTE, eventType, hoursEnd, end);
+        LocalDateTime daysStart = Granularity.DAY.ceil(hoursStart);
+        LocalDateTime daysEnd = Granularity.DAY.floor(hoursEnd);
+        if (!daysStart.isBefore(daysEnd)) {
+            count += sum(Granularity.HOUR, eventType, hoursStart, hoursEnd);
+        } else {
+            count += sum(Granularity.HOUR, eventType, hoursStart, daysStart)
+                    + sum(Granularity.DAY, eventType, daysStart, daysEnd)
+                    + sum(Granularity.HOUR, eventType, daysEnd, hoursEnd);
+        }
+        return new RollupTotal(eventType, start, end, count);
+    }
+
+    private long sum(Granularity granularity, String eventType, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return 0;
+        }
+        return repository.sumRange(granularity, eventType, from, to);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.analytics.service;
+
+import com.example.analytics.domain.RollupKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-minute event counts not yet written to {@code event_rollups}, held in a ring of minute
+ * windows indexed by the event's own timestamp. A slot is reused when a different minute maps to
+ * it; anything it still holds moves to an overflow map first, so late or replayed events are
+ * never dropped.
+ */
+@Component
+public class RollupWindows {
+
+    private final Window[] ring;
+    private final Map<RollupKey, Long> overflow = new HashMap<>();
+
+    public RollupWindows(@Value("${app.analytics.rollups.ring-minutes:120}") int ringMinutes) {
+        this.ring = new Window[ringMinutes];
+        for (int i = 0; i < ringMinutes; i++) {
+            ring[i] = new Window();
+        }
+    }
+
+    /**
+     * @param timestamp event time, in UTC like every service's clock
+     */
+    public void record(String eventType, LocalDateTime timestamp) {
+        long epochMinute = timestamp.toEpochSecond(ZoneOffset.UTC) / 60;
+        Window window = ring[(int) Math.floorMod(epochMinute, ring.length)];
+        synchronized (window) {
+            if (window.epochMinute != epochMinute) {
+                spill(window);
+                window.epochMinute = epochMinute;
+            }
+            window.counts.merge(eventType, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Takes every count recorded since the last drain and resets them.
+     */
+    public Map<RollupKey, Long> drain() {
+        Map<RollupKey, Long> deltas;
+        synchronized (overflow) {
+            deltas = new HashMap<>(overflow);
+            overflow.clear();
+        }
+        for (Window window : ring) {
+            synchronized (window) {
+                if (window.counts.isEmpty()) {
+                    continue;
+                }
+                LocalDateTime minute = window.minute();
+                window.counts.forEach((eventType, count) ->
+                        deltas.merge(new RollupKey(minute, eventType), count, Long::sum));
+                window.counts.clear();
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Puts drained counts back after a failed flush so the next one writes them.
+     */
+    public void restore(Map<RollupKey, Long> deltas) {
+        synchronized (overflow) {
+            deltas.forEach((key, count) -> overflow.merge(key, count, Long::sum));
+        }
+    }
+
+    private void spill(Window window) {
+        if (window.counts.isEmpty()) {
+            return;
+        }
+        LocalDateTime minute = window.minute();
+        synchronized (overflow) {
+            window.counts.forEach((eventType, count) ->
+                    overflow.merge(new RollupKey(minute, eventType), count, Long::sum));
+        }
+        window.counts.clear();
+    }
+
+    private static class Window {
+        private long epochMinute = Long.MIN_VALUE;
+        private final Map<String, Long> counts = new HashMap<>();
+
+        LocalDateTime minute() {
+            return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.analytics.service;
+
+import com.example.analytics.domain.SagaStage;
+import com.example.analytics.dto.StageLatency;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latency of each saga hop in HdrHistograms. Listener threads record into a lock-free
+ * {@link Recorder}; every slice its interval histogram is moved into a ring of recent slices,
+ * and a window's percentiles are read by adding up the newest slices. Windows therefore trail
+ * real time by up to one slice.
+ */
+@Component
+public class SagaLatencies {
+
+    private final long maxTrackableMs;
+    private final int significantDigits;
+    private final Duration slice;
+    private final List<Duration> windows;
+    private final Map<SagaStage, StageHistograms> stages = new EnumMap<>(SagaStage.class);
+
+    public SagaLatencies(@Value("${app.analytics.latency.max-trackable:1h}") Duration maxTrackable,
+            @Value("${app.analytics.latency.significant-digits:2}") int significantDigits,
+            @Value("${app.analytics.latency.slice-ms:10000}") long sliceMs,
+            @Value("${app.analytics.latency.windows:1m,5m,15m}") Duration[] windows) {
+        this.maxTrackableMs = maxTrackable.toMillis();
+        this.significantDigits = significantDigits;
+        this.slice = Duration.ofMillis(sliceMs);
+        this.windows = List.of(windows);
+        Duration longest = this.windows.stream().max(Duration::compareTo).orElse(this.slice);
+        int slices = (int) Math.max(1, ceilDiv(longest.toMillis(), sliceMs));
+        for (SagaStage stage : SagaStage.values()) {
+            stages.put(stage, new StageHistograms(slices));
+        }
+    }
+
+    /**
+     * Records the time between two event timestamps; ignored until both ends are known.
+     * Clocks of different services can disagree, so negative spans count as zero.
+     */
+    public void record(SagaStage stage, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            return;
+        }
+        long millis = Math.max(0, Duration.between(from, to).toMillis());
+        stages.get(stage).recorder.recordValue(Math.min(millis, maxTrackableMs));
+    }
+
+    @Scheduled(fixedRateString = "${app.analytics.latency.slice-ms:10000}")
+    public void rotate() {
+        stages.values().forEach(StageHistograms::rotate);
+    }
+
+    public List<StageLatency> snapshot() {
+        List<StageLatency> latencies = new ArrayList<>();
+        stages.forEach((stage, histograms) -> {
+            for (Duration window : windows) {
+                Histogram histogram = histograms.window((int) Math.max(1, ceilDiv(window.toMillis(), slice.toMillis())));
+                latencies.add(new StageLatency(stage, window, histogram.getTotalCount(),
+                        histogram.getValueAtPercentile(50),
+                        histogram.getValueAtPercentile(99),
+                        histogram.getValueAtPercentile(99.9),
+                        histogram.getMaxValue()));
+            }
+        });
+        return latencies;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    private class StageHistograms {
+        private final Recorder recorder = new Recorder(1, maxTrackableMs, significantDigits);
+        // Newest slice at head; slots are recycled into the recorder as they fall out of the ring
+        private final Histogram[] ring;
+        private int head = -1;
+
+        StageHistograms(int slices) {
+            this.ring = new Histogram[slices];
+        }
+
+        synchronized void rotate() {
+            int next = (head + 1) % ring.length;
+            ring[next] = recorder.getIntervalHistogram(ring[next]);
+            head = next;
+        }
+
+        synchronized Histogram window(int slices) {
+            Histogram sum = new Histogram(1, maxTrackableMs, significantDigits);
+            for (int i = 0; i < Math.min(slices, ring.length) && head >= 0; i++) {
+                Histogram histogram = ring[Math.floorMod(head - i, ring.length)];
+                if (histogram != null) {
+                    sum.add(histogram);
+                }
+            }
+            return sum;
+        }
+    }
+}
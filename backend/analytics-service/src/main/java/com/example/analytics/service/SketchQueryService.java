@@ -0,0 +1,91 @@
+package com.example.analytics.service;
+
+import com.example.analytics.domain.Granularity;
+import com.example.analytics.domain.SketchKind;
+import com.example.analytics.domain.SketchRollup;
+import com.example.analytics.dto.TopItem;
+import com.example.analytics.dto.UniqueCount;
+import com.example.analytics.repository.SketchRollupRepository;
+import com.example.analytics.sketch.CountMinTopK;
+import com.example.analytics.sketch.HyperLogLog;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers sketch queries to the hour. Like {@link RollupQueryService#total}, a range is covered
+ * by leading hours, whole days and trailing hours, so a month reads about 30 day rows and at
+ * most 46 hour rows instead of 720.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SketchQueryService {
+
+    private final SketchRollupRepository repository;
+
+    public SketchQueryService(SketchRollupRepository repository) {
+        this.repository = repository;
+    }
+
+    public UniqueCount uniqueCustomers(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = Granularity.HOUR.floor(from);
+        LocalDateTime end = Granularity.HOUR.ceil(to);
+        HyperLogLog merged = null;
+        for (byte[] data : rows(SketchKind.UNIQUE_CUSTOMERS, start, end)) {
+            HyperLogLog sketch = HyperLogLog.fromBytes(data);
+            if (merged == null) {
+                merged = sketch;
+            } else {
+                merged.merge(sketch);
+            }
+        }
+        return new UniqueCount(start, end, merged == null ? 0 : merged.estimate());
+    }
+
+    public List<TopItem> topProducts(LocalDateTime from, LocalDateTime to, int limit) {
+        CountMinTopK merged = null;
+        for (byte[] data : rows(SketchKind.TOP_PRODUCTS, Granularity.HOUR.floor(from), Granularity.HOUR.ceil(to))) {
+            CountMinTopK sketch = CountMinTopK.fromBytes(data);
+            if (merged == null) {
+                merged = sketch;
+            } else {
+                merged.merge(sketch);
+            }
+        }
+        if (merged == null) {
+            return List.of();
+        }
+        return merged.top(limit).stream()
+                .map(entry -> new TopItem(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private List<byte[]> rows(SketchKind kind, LocalDateTime start, LocalDateTime end) {
+        List<byte[]> rows = new ArrayList<>();
+        if (!start.isBefore(end)) {
+            return rows;
+        }
+        LocalDateTime daysStart = Granularity.DAY.ceil(start);
+        LocalDateTime daysEnd = Granularity.DAY.floor(end);
+        if (!daysStart.isBefore(daysEnd)) {
+            collect(rows, kind, Granularity.HOUR, start, end);
+        } else {
+            collect(rows, kind, Granularity.HOUR, start, daysStart);
+            collect(rows, kind, Granularity.DAY, daysStart, daysEnd);
+            collect(rows, kind, Granularity.HOUR, daysEnd, end);
+        }
+        return rows;
+    }
+
+    private void collect(List<byte[]> rows, SketchKind kind, Granularity granularity,
+            LocalDateTime from, LocalDateTime to) {
+        if (from.isBefore(to)) {
+            repository.findRange(kind, granularity, from, to).stream()
+                    .map(SketchRollup::getData)
+                    .forEach(rows::add);
+        }
+    }
+}
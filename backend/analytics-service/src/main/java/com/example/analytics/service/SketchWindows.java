@@ -0,0 +1,91 @@
+package com.example.analytics.service;
+
+import com.example.analytics.domain.Granularity;
+import com.example.analytics.sketch.CountMinTopK;
+import com.example.analytics.sketch.HyperLogLog;
+import com.example.analytics.sketch.WindowSketches;
+import com.example.common.event.OrderCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-hour sketch deltas not yet merged into {@code sketch_rollups}, fed from order events.
+ */
+@Component
+public class SketchWindows {
+
+    private final int hllPrecision;
+    private final int cmsDepth;
+    private final int cmsWidth;
+    private final int topCandidates;
+    private final Map<LocalDateTime, WindowSketches> hours = new HashMap<>();
+
+    public SketchWindows(@Value("${app.analytics.sketches.hll-precision:14}") int hllPrecision,
+            @Value("${app.analytics.sketches.cms-depth:4}") int cmsDepth,
+            @Value("${app.analytics.sketches.cms-width:1024}") int cmsWidth,
+            @Value("${app.analytics.sketches.top-candidates:100}") int topCandidates) {
+        this.hllPrecision = hllPrecision;
+        this.cmsDepth = cmsDepth;
+        this.cmsWidth = cmsWidth;
+        this.topCandidates = topCandidates;
+    }
+
+    public WindowSketches newSketches() {
+        return new WindowSketches(new HyperLogLog(hllPrecision), new CountMinTopK(cmsDepth, cmsWidth, topCandidates));
+    }
+
+    /**
+     * An empty instance with the same settings, for building sketches outside the live flush.
+     */
+    public SketchWindows detached() {
+        return new SketchWindows(hllPrecision, cmsDepth, cmsWidth, topCandidates);
+    }
+
+    /**
+     * Folds hour sketches into one per day without touching the hour sketches themselves.
+     */
+    public Map<LocalDateTime, WindowSketches> foldDays(Map<LocalDateTime, WindowSketches> hours) {
+        Map<LocalDateTime, WindowSketches> days = new HashMap<>();
+        hours.forEach((hour, window) -> days
+                .computeIfAbsent(Granularity.DAY.floor(hour), day -> newSketches())
+                .merge(window));
+        return days;
+    }
+
+    public synchronized void record(OrderCreatedEvent order, LocalDateTime timestamp) {
+        WindowSketches window = hours.computeIfAbsent(Granularity.HOUR.floor(timestamp), hour -> newSketches());
+        if (order.customerId() != null) {
+            window.customers().add(order.customerId());
+        }
+        if (order.items() != null) {
+            for (OrderCreatedEvent.OrderItemPayload item : order.items()) {
+                if (item.productId() != null && item.quantity() != null) {
+                    window.products().add(item.productId(), item.quantity());
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the sketches built since the last drain, keyed by hour.
+     */
+    public synchronized Map<LocalDateTime, WindowSketches> drain() {
+        Map<LocalDateTime, WindowSketches> drained = new HashMap<>(hours);
+        hours.clear();
+        return drained;
+    }
+
+    /**
+     * Merges drained sketches back after a failed flush so the next one writes them.
+     */
+    public synchronized void restore(Map<LocalDateTime, WindowSketches> drained) {
+        drained.forEach((hour, sketches) -> hours.merge(hour, sketches, (current, restored) -> {
+            current.merge(restored);
+            return current;
+        }));
+    }
+}
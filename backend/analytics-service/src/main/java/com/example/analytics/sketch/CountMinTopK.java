@@ -0,0 +1,142 @@
+package com.example.analytics.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heavy hitters: a Count-Min sketch estimates every key's total, and a small candidate set keeps
+ * the keys with the highest estimates seen so far. Estimates never undercount and overcount by
+ * at most about {@code e / width} of the grand total. Merging adds the tables and re-ranks the
+ * union of both candidate sets against the merged table. Not thread-safe.
+ */
+public class CountMinTopK {
+    private static final byte VERSION = 1;
+
+    private final int depth;
+    private final int width;
+    private final int capacity;
+    private final long[][] table;
+    private final Map<String, Long> candidates = new HashMap<>();
+
+    /**
+     * @param capacity candidates kept; a few times the largest K ever asked for
+     */
+    public CountMinTopK(int depth, int width, int capacity) {
+        this.depth = depth;
+        this.width = width;
+        this.capacity = capacity;
+        this.table = new long[depth][width];
+    }
+
+    public void add(String key, long count) {
+        long hash = Murmur3.hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = Math.floorMod(h1 + row * h2, width);
+            table[row][column] += count;
+            estimate = Math.min(estimate, table[row][column]);
+        }
+        offer(key, estimate);
+    }
+
+    public long estimate(String key) {
+        long hash = Murmur3.hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, table[row][Math.floorMod(h1 + row * h2, width)]);
+        }
+        return estimate;
+    }
+
+    public void merge(CountMinTopK other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot merge Count-Min sketches of different dimensions");
+        }
+        for (int row = 0; row < depth; row++) {
+            for (int column = 0; column < width; column++) {
+                table[row][column] += other.table[row][column];
+            }
+        }
+        List<String> keys = new ArrayList<>(candidates.keySet());
+        keys.addAll(other.candidates.keySet());
+        candidates.clear();
+        for (String key : keys) {
+            offer(key, estimate(key));
+        }
+    }
+
+    public List<Map.Entry<String, Long>> top(int k) {
+        return candidates.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(k)
+                .map(e -> Map.entry(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    public boolean isEmpty() {
+        return candidates.isEmpty();
+    }
+
+    private void offer(String key, long estimate) {
+        if (candidates.containsKey(key) || candidates.size() < capacity) {
+            candidates.put(key, estimate);
+            return;
+        }
+        Map.Entry<String, Long> smallest = null;
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            if (smallest == null || candidate.getValue() < smallest.getValue()) {
+                smallest = candidate;
+            }
+        }
+        if (smallest != null && estimate > smallest.getValue()) {
+            candidates.remove(smallest.getKey());
+            candidates.put(key, estimate);
+        }
+    }
+
+    public byte[] toBytes() {
+        return SketchCodec.encode(out -> {
+            out.writeByte(VERSION);
+            out.writeInt(depth);
+            out.writeInt(width);
+            out.writeInt(capacity);
+            for (long[] row : table) {
+                for (long cell : row) {
+                    out.writeLong(cell);
+                }
+            }
+            out.writeInt(candidates.size());
+            for (String key : candidates.keySet()) {
+                out.writeUTF(key);
+            }
+        });
+    }
+
+    public static CountMinTopK fromBytes(byte[] data) {
+        return SketchCodec.decode(data, in -> {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unknown Count-Min sketch version");
+            }
+            CountMinTopK sketch = new CountMinTopK(in.readInt(), in.readInt(), in.readInt());
+            for (long[] row : sketch.table) {
+                for (int column = 0; column < row.length; column++) {
+                    row[column] = in.readLong();
+                }
+            }
+            int candidates = in.readInt();
+            for (int i = 0; i < candidates; i++) {
+                String key = in.readUTF();
+                sketch.candidates.put(key, sketch.estimate(key));
+            }
+            return sketch;
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.analytics.sketch;
+
+/**
+ * Distinct-count estimate in {@code 2^precision} one-byte registers, about
+ * {@code 1.04 / sqrt(2^precision)} relative error. Two sketches of the same precision merge by
+ * taking the larger register, so windows and replicas combine without double counting.
+ * Not thread-safe.
+ */
+public class HyperLogLog {
+    private static final byte VERSION = 1;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(String value) {
+        long hash = Murmur3.hash64(value);
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first set bit in what is left; a guard bit caps it for all-zero remainders
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog of precision " + other.precision
+                    + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Linear counting is more accurate while many registers are still empty
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] toBytes() {
+        return SketchCodec.encode(out -> {
+            out.writeByte(VERSION);
+            out.writeByte(precision);
+            out.write(registers);
+        });
+    }
+
+    public static HyperLogLog fromBytes(byte[] data) {
+        return SketchCodec.decode(data, in -> {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unknown HyperLogLog version");
+            }
+            HyperLogLog sketch = new HyperLogLog(in.readByte());
+            in.readFully(sketch.registers);
+            return sketch;
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.analytics.sketch;
+
+/**
+ * The sketches kept for one time window: distinct customers and units sold per product.
+ */
+public record WindowSketches(HyperLogLog customers, CountMinTopK products) {
+
+    public void merge(WindowSketches other) {
+        customers.merge(other.customers);
+        products.merge(other.products);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.analytics.archive;
+
+import com.example.analytics.dto.ArchiveAggregate;
+import com.example.analytics.service.ArchiveQueryService;
+import com.example.common.event.BaseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EventArchiveTest {
+
+        private static final String ORDER_CREATED = "OrderCreatedEvent_V1";
+        private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+        private final ObjectMapper objectMapper = new ObjectMapper();
+
+        @TempDir
+        Path root;
+
+        @Test
+        void aggregatesAColumnGroupedByAnotherAcrossSegmentsAndCompaction() throws IOException {
+                EventArchive archive = new EventArchive(root.toString(), true, 3, 1_000_000);
+                // Three flushes, three segments; the last one adds a column the others lack
+                archive.append(order("o1", 10.5, "USD", null));
+                archive.append(order("o2", 20, "EUR", null));
+                archive.write(archive.drain());
+                archive.append(order("o3", 4.5, "USD", null));
+                archive.write(archive.drain());
+                archive.append(order("o4", 100, "SEK", "first"));
+                archive.append(event("OtherEvent_V1", "{\"totalAmount\": 999}"));
+                archive.write(archive.drain());
+
+                ArchiveQueryService queries = new ArchiveQueryService(archive, 366);
+                ArchiveAggregate before = queries.aggregate(ORDER_CREATED, "totalAmount", "currency", DAY, DAY);
+                assertThat(before.segmentsScanned()).isEqualTo(3);
+
+                archive.compact();
+                assertThat(segmentCount()).isEqualTo(2); // merged orders plus the other event type
+
+                ArchiveAggregate after = queries.aggregate(ORDER_CREATED, "totalAmount", "currency", DAY, DAY);
+                assertThat(after.segmentsScanned()).isEqualTo(1);
+                assertThat(after.rowsScanned()).isEqualTo(4);
+                assertThat(after.groups()).isEqualTo(before.groups());
+                assertThat(after.groups()).containsExactly(
+                                new ArchiveAggregate.Group("EUR", 1, 20, 20, 20),
+                                new ArchiveAggregate.Group("SEK", 1, 100, 100, 100),
+                                new ArchiveAggregate.Group("USD", 2, 15, 4.5, 10.5));
+
+                ArchiveAggregate byNote = queries.aggregate(ORDER_CREATED, "totalAmount", "note", DAY, DAY);
+                assertThat(byNote.groups()).extracting(ArchiveAggregate.Group::key).containsExactly("first", null);
+        }
+
+        @Test
+        void sweepsUnfinishedFilesAndLeavesASingleSegmentAlone() throws IOException {
+                EventArchive archive = new EventArchive(root.toString(), true, 1, 1_000_000);
+                archive.append(order("o1", 10, "USD", null));
+                archive.write(archive.drain());
+                Path directory = root.resolve(DAY.toString()).resolve(ORDER_CREATED);
+                Files.writeString(directory.resolve("1-000001.col.tmp"), "partial");
+                Files.writeString(directory.resolve("1-000002.col.merged"), "partial");
+
+                archive.sweepOrphans();
+                archive.compact();
+                try (Stream<Path> files = Files.list(directory)) {
+                        assertThat(files.map(file -> file.getFileName().toString()))
+                                        .singleElement().satisfies(name -> assertThat(name).endsWith(".col"));
+                }
+        }
+
+        @Test
+        void rejectsReversedAndOverlongRanges() {
+                ArchiveQueryService queries = new ArchiveQueryService(new EventArchive(root.toString(), true, 3, 1_000_000), 7);
+                assertThatThrownBy(() -> queries.aggregate(ORDER_CREATED, "totalAmount", null, DAY, DAY.minusDays(1)))
+                                .isInstanceOf(IllegalArgumentException.class);
+                assertThatThrownBy(() -> queries.aggregate(ORDER_CREATED, "totalAmount", null, DAY, DAY.plusDays(7)))
+                                .isInstanceOf(IllegalArgumentException.class);
+                assertThat(queries.aggregate(ORDER_CREATED, "totalAmount", null, DAY, DAY.plusDays(6)).rowsScanned())
+                                .isZero();
+        }
+
+        @Test
+        void segmentRoundTripsEveryColumn() throws IOException {
+                Path file = root.resolve("segment.col");
+                ArchivedEvent original = ArchivedEvent.of(order("o1", 12.25, "USD", "hello"));
+                SegmentWriter.write(file, List.of(original, ArchivedEvent.of(order("o2", 3, "EUR", null))));
+
+                Segment segment = Segment.open(file);
+                assertThat(segment.rowCount()).isEqualTo(2);
+                assertThat(segment.columns()).containsEntry("totalAmount", ColumnType.DOUBLE)
+                                .containsEntry("quantity", ColumnType.LONG)
+                                .containsEntry("currency", ColumnType.STRING);
+                List<ArchivedEvent> rows = segment.rows(ORDER_CREATED);
+                assertThat(rows.get(0).values()).isEqualTo(original.values());
+                assertThat(rows.get(0).timestamp()).isEqualTo(original.timestamp());
+                assertThat(rows.get(1).values()).doesNotContainKey("note");
+        }
+
+        private BaseEvent<JsonNode> order(String orderId, double amount, String currency, String note) throws IOException {
+                String payload = "{\"orderId\": \"%s\", \"totalAmount\": %s, \"currency\": \"%s\", \"quantity\": 2%s, \"items\": []}"
+                                .formatted(orderId, amount, currency, note == null ? "" : ", \"note\": \"" + note + "\"");
+                return event(ORDER_CREATED, payload);
+        }
+
+        private BaseEvent<JsonNode> event(String eventType, String payload) throws IOException {
+                return new BaseEvent<>("id-" + payload.hashCode(), eventType, DAY.atTime(12, 30, 15, 250_000_000),
+                                "corr", objectMapper.readTree(payload));
+        }
+
+        private long segmentCount() throws IOException {
+                try (Stream<Path> files = Files.walk(root)) {
+                        return files.filter(file -> file.toString().endsWith(EventArchive.SEGMENT_SUFFIX)).count();
+                }
+        }
+}
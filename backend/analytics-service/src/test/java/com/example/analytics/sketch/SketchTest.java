@@ -0,0 +1,64 @@
+package com.example.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class SketchTest {
+
+        @Test
+        void hyperLogLogEstimatesWithinErrorBoundAndMergesWithoutDoubleCounting() {
+                HyperLogLog first = new HyperLogLog(14);
+                HyperLogLog second = new HyperLogLog(14);
+                for (int i = 0; i < 60_000; i++) {
+                        first.add("customer-" + i);
+                }
+                // Half of these overlap with the first sketch
+                for (int i = 30_000; i < 100_000; i++) {
+                        second.add("customer-" + i);
+                }
+
+                assertThat((double) first.estimate()).isCloseTo(60_000, within(60_000 * 0.03));
+
+                HyperLogLog restored = HyperLogLog.fromBytes(first.toBytes());
+                restored.merge(second);
+                assertThat((double) restored.estimate()).isCloseTo(100_000, within(100_000 * 0.03));
+        }
+
+        @Test
+        void hyperLogLogIsExactEnoughForSmallCounts() {
+                HyperLogLog sketch = new HyperLogLog(14);
+                for (int i = 0; i < 3; i++) {
+                        sketch.add("alice");
+                        sketch.add("bob");
+                }
+
+                assertThat(sketch.estimate()).isEqualTo(2);
+        }
+
+        @Test
+        void countMinKeepsHeavyHittersAcrossMergeAndSerialisation() {
+                CountMinTopK first = new CountMinTopK(4, 1024, 20);
+                CountMinTopK second = new CountMinTopK(4, 1024, 20);
+                for (int i = 0; i < 2_000; i++) {
+                        first.add("tail-" + i, 1);
+                        second.add("tail-" + (i + 2_000), 1);
+                }
+                first.add("widget", 500);
+                second.add("widget", 300);
+                second.add("gadget", 600);
+
+                CountMinTopK merged = CountMinTopK.fromBytes(first.toBytes());
+                merged.merge(CountMinTopK.fromBytes(second.toBytes()));
+
+                List<Map.Entry<String, Long>> top = merged.top(2);
+                assertThat(top).extracting(Map.Entry::getKey).containsExactly("widget", "gadget");
+                // Count-Min never undercounts
+                assertThat(top.get(0).getValue()).isGreaterThanOrEqualTo(800);
+                assertThat(top.get(1).getValue()).isGreaterThanOrEqualTo(600);
+        }
+}
@@ -1,9 +1,13 @@
 package com.example.auth;
 
+import com.example.common.mail.MailTransportConfig;
+import com.example.common.web.UploadServerConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import({ MailTransportConfig.class, UploadServerConfig.class })
 public class AuthServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(AuthServiceApplication.class, args);
@@ -0,0 +1,25 @@
+package com.example.auth.controller;
+
+import com.example.common.web.UploadServer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+public class UploadController {
+    private final UploadServer uploads;
+
+    public UploadController(UploadServer uploads) {
+        this.uploads = uploads;
+    }
+
+    @GetMapping("/uploads/profiles/{name}")
+    public void getProfilePicture(@PathVariable String name, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        uploads.serve("profiles/" + name, null, request, response);
+    }
+}
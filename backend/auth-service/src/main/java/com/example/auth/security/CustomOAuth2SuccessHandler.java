@@ -107,7 +107,7 @@ public class CustomOAuth2SuccessHandler extends SimpleUrlAuthenticationSuccessHa
                 .map(role -> role.getName().name())
                 .collect(Collectors.joining(","));
 
-        String jwtToken = tokenProvider.generateTokenFromUsername(user.getUsername(), roles);
+        String jwtToken = tokenProvider.generateTokenFromUsername(user.getUsername(), roles, user.getEmail());
         System.out.println("Generated JWT token for OAuth2 user: " + user.getUsername());
 
         // Redirect to frontend with token and oauth=true parameter
@@ -125,7 +125,6 @@ public class AuthService {
                                 new UsernamePasswordAuthenticationToken(request.username(), request.password()));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                String jwt = tokenProvider.generateToken(authentication);
 
                 List<String> roles = authentication.getAuthorities().stream()
                                 .map(GrantedAuthority::getAuthority)
@@ -133,6 +132,7 @@ public class AuthService {
 
                 User user = userRepository.findByUsername(request.username())
                                 .orElseThrow(() -> new RuntimeException("User not found"));
+                String jwt = tokenProvider.generateToken(authentication, user.getEmail());
 
                 com.example.auth.entity.RefreshToken refreshToken = refreshTokenService
                                 .createRefreshToken(user.getUsername());
@@ -153,7 +153,7 @@ public class AuthService {
                                                         .map(role -> role.getName().name())
                                                         .collect(Collectors.joining(","));
                                         String token = tokenProvider.generateTokenFromUsername(user.getUsername(),
-                                                        roles);
+                                                        roles, user.getEmail());
                                         return new com.example.auth.dto.TokenRefreshResponse(token,
                                                         requestRefreshToken);
                                 })
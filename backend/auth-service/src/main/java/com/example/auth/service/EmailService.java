@@ -1,28 +1,52 @@
 package com.example.auth.service;
 
-import org.springframework.mail.javamail.JavaMailSender;
+import com.example.common.mail.PooledMailTransport;
+import com.example.common.template.MessageTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends account mail through the pooled transport. The verification and password reset flows
+ * wait until the SMTP server accepted their message, so a user is never told to check a mailbox
+ * that nothing was sent to.
+ */
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final PooledMailTransport mailTransport;
+    private final Duration deliveryTimeout;
+    private final MessageTemplate verificationTemplate = MessageTemplate.load("mail/verify-email.html");
+    private final MessageTemplate passwordResetTemplate = MessageTemplate.load("mail/reset-password.html");
 
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(PooledMailTransport mailTransport,
+            @Value("${app.mail.delivery-timeout:30s}") Duration deliveryTimeout) {
+        this.mailTransport = mailTransport;
+        this.deliveryTimeout = deliveryTimeout;
     }
 
-    public void sendEmail(String to, String subject, String body) {
+    /**
+     * Queues a message and returns at once.
+     *
+     * @return completes once the SMTP server accepted the message, or exceptionally when it was not
+     */
+    public CompletableFuture<Void> sendEmail(String to, String subject, String body) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessage message = mailTransport.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true);
             helper.setTo(to);
             helper.setSubject(subject);
             helper.setText(body, true);
-            mailSender.send(message);
+            return mailTransport.submit(message);
         } catch (MessagingException e) {
             throw new RuntimeException("Failed to send email", e);
         }
@@ -30,17 +54,24 @@ public class EmailService {
 
     public void sendVerificationEmail(String to, String token) {
         String link = "http://localhost:3000/verify-email?token=" + token;
-        String body = "<h1>Email Verification</h1>" +
-                "<p>Please click the link below to verify your email:</p>" +
-                "<a href=\"" + link + "\">Verify Email</a>";
-        sendEmail(to, "Verify your email", body);
+        awaitDelivery(sendEmail(to, "Verify your email", verificationTemplate.render(Map.of("link", link))));
     }
 
     public void sendPasswordResetEmail(String to, String token) {
         String link = "http://localhost:3000/reset-password?token=" + token;
-        String body = "<h1>Password Reset</h1>" +
-                "<p>Please click the link below to reset your password:</p>" +
-                "<a href=\"" + link + "\">Reset Password</a>";
-        sendEmail(to, "Reset your password", body);
+        awaitDelivery(sendEmail(to, "Reset your password", passwordResetTemplate.render(Map.of("link", link))));
+    }
+
+    private void awaitDelivery(CompletableFuture<Void> delivery) {
+        try {
+            delivery.get(deliveryTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while sending email", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to send email", e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Timed out sending email", e);
+        }
     }
 }
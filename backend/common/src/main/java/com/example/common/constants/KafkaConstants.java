@@ -6,10 +6,17 @@ public class KafkaConstants {
     public static final String PAYMENT_EVENTS_TOPIC = "payment.events";
     public static final String PRODUCT_EVENTS_TOPIC = "products.events";
     public static final String NOTIFICATION_EVENTS_TOPIC = "notifications.events";
+    public static final String STOCK_EVENTS_TOPIC = "inventory.stock.events";
+    public static final String WISHLIST_EVENTS_TOPIC = "products.wishlist.events";
 
     public static final String ORDER_CREATED_V1 = "OrderCreatedEvent_V1";
     public static final String INVENTORY_STATUS_V1 = "InventoryStatusEvent_V1";
     public static final String PRODUCT_CREATED_V1 = "ProductCreatedEvent_V1";
     public static final String PRODUCT_UPDATED_V1 = "ProductUpdatedEvent_V1";
+    public static final String PRODUCT_DELETED_V1 = "ProductDeletedEvent_V1";
+    public static final String CATEGORY_CHANGED_V1 = "CategoryChangedEvent_V1";
     public static final String PAYMENT_STATUS_V1 = "PaymentStatusEvent_V1";
+    public static final String WISHLIST_CHANGED_V1 = "WishlistChangedEvent_V1";
+    public static final String WISHLIST_ALERTS_V1 = "WishlistAlertsEvent_V1";
+    public static final String STOCK_RESTOCKED_V1 = "StockRestockedEvent_V1";
 }
@@ -8,7 +8,8 @@ public record OrderCreatedEvent(
                 String customerId,
                 BigDecimal totalAmount,
                 String currency,
-                List<OrderItemPayload> items) {
+                List<OrderItemPayload> items,
+                String customerEmail) {
         public record OrderItemPayload(
                         String productId,
                         String productName,
@@ -0,0 +1,9 @@
+package com.example.common.event;
+
+/**
+ * A product's live stock went from none to some, whether by an admin reset or released stock.
+ */
+public record StockRestockedEvent(
+        String productId,
+        Integer availableQuantity) {
+}
@@ -0,0 +1,43 @@
+package com.example.common.mail;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Builds the service's {@link PooledMailTransport} from the {@code spring.mail} settings and the
+ * {@code app.mail.transport} tuning. Services that send mail {@code @Import} it.
+ */
+@Configuration
+public class MailTransportConfig {
+
+    @Bean(destroyMethod = "close")
+    public PooledMailTransport mailTransport(MailProperties mailProperties,
+            MeterRegistry meterRegistry,
+            @Value("${app.mail.transport.name:${spring.application.name:mail}}") String name,
+            @Value("${app.mail.transport.connections:2}") int connections,
+            @Value("${app.mail.transport.batch-size:20}") int batchSize,
+            @Value("${app.mail.transport.queue-capacity:500}") int queueCapacity,
+            @Value("${app.mail.transport.rate-per-second:10}") double ratePerSecond,
+            @Value("${app.mail.transport.idle-timeout:30s}") Duration idleTimeout,
+            @Value("${app.mail.transport.max-messages-per-connection:100}") int maxMessagesPerConnection) {
+        Properties props = new Properties();
+        props.putAll(mailProperties.getProperties());
+        String protocol = mailProperties.getProtocol();
+        props.put("mail.transport.protocol", protocol);
+        props.put("mail." + protocol + ".host", mailProperties.getHost());
+        if (mailProperties.getPort() != null) {
+            props.put("mail." + protocol + ".port", String.valueOf(mailProperties.getPort()));
+        }
+        MailTransportSettings settings = new MailTransportSettings(name, connections, batchSize,
+                queueCapacity, ratePerSecond, idleTimeout, maxMessagesPerConnection);
+        return new PooledMailTransport(Session.getInstance(props), mailProperties.getUsername(),
+                mailProperties.getPassword(), settings, meterRegistry);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.common.mail;
+
+import java.time.Duration;
+
+/**
+ * Tuning for {@link PooledMailTransport}.
+ *
+ * @param name                      metric tag identifying the pool
+ * @param connections               number of kept-alive SMTP connections
+ * @param batchSize                 messages a connection takes from the queue at once
+ * @param queueCapacity             messages that may wait for a connection
+ * @param messagesPerSecond         send rate across the whole pool, {@code <= 0} for unlimited
+ * @param idleTimeout               a connection with no work for this long is closed
+ * @param maxMessagesPerConnection  reconnect after this many messages, servers often cap it
+ */
+public record MailTransportSettings(
+        String name,
+        int connections,
+        int batchSize,
+        int queueCapacity,
+        double messagesPerSecond,
+        Duration idleTimeout,
+        int maxMessagesPerConnection) {
+
+    public MailTransportSettings {
+        if (connections < 1 || batchSize < 1 || queueCapacity < 1 || maxMessagesPerConnection < 1) {
+            throw new IllegalArgumentException("Mail transport sizes must be positive");
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.common.mail;
+
+import com.example.common.utils.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SMTP sender that keeps a fixed pool of connections open and lets each connection send a
+ * batch of queued messages back to back, instead of the connect/send/quit round trip
+ * {@code JavaMailSender} does for every message.
+ *
+ * <p>Messages are queued with {@link #submit(MimeMessage)}; the returned future completes once
+ * the server accepted the message. Each connection runs on its own platform thread: Jakarta Mail
+ * does its socket I/O inside {@code synchronized} methods, which would pin a virtual thread's carrier.
+ */
+public class PooledMailTransport implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PooledMailTransport.class);
+    private static final long POLL_INTERVAL_MS = 500;
+    private static final long CLOSE_TIMEOUT_MS = 10_000;
+
+    private final Session session;
+    private final String username;
+    private final String password;
+    private final MailTransportSettings settings;
+    private final BlockingQueue<OutgoingMail> queue;
+    private final RateLimiter throttle;
+    private final Timer sendTimer;
+    private final Counter failures;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final List<Thread> connections = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public PooledMailTransport(Session session, String username, String password,
+            MailTransportSettings settings, MeterRegistry meterRegistry) {
+        this.session = session;
+        this.username = username;
+        this.password = password;
+        this.settings = settings;
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+        this.throttle = new RateLimiter(settings.messagesPerSecond());
+
+        this.sendTimer = Timer.builder("mail.transport.send")
+                .description("Time for the SMTP server to accept a message")
+                .tag("pool", settings.name())
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.failures = Counter.builder("mail.transport.failures")
+                .tag("pool", settings.name())
+                .register(meterRegistry);
+        Gauge.builder("mail.transport.queue.depth", queue, BlockingQueue::size)
+                .tag("pool", settings.name())
+                .register(meterRegistry);
+        Gauge.builder("mail.transport.connections.open", openConnections, AtomicInteger::get)
+                .tag("pool", settings.name())
+                .register(meterRegistry);
+
+        for (int i = 0; i < settings.connections(); i++) {
+            connections.add(Thread.ofPlatform()
+                    .daemon()
+                    .name("mail-" + settings.name() + "-" + i)
+                    .start(this::runConnection));
+        }
+    }
+
+    public MimeMessage createMimeMessage() {
+        return new MimeMessage(session);
+    }
+
+    /**
+     * Queues a message for delivery. Fails fast with {@link RejectedExecutionException} when the
+     * queue is full so callers can apply their own backpressure.
+     */
+    public CompletableFuture<Void> submit(MimeMessage message) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        if (!running) {
+            result.completeExceptionally(new RejectedExecutionException("Mail transport is closed"));
+            return result;
+        }
+        try {
+            message.saveChanges();
+        } catch (MessagingException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        if (!queue.offer(new OutgoingMail(message, result))) {
+            result.completeExceptionally(new RejectedExecutionException(
+                    "Mail queue full (" + settings.queueCapacity() + " messages)"));
+        }
+        return result;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Stops taking new messages, lets the connections finish what is already queued and closes
+     * them. All connections share one deadline, so closing never takes much longer than it.
+     */
+    @Override
+    public void close() {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MS);
+        for (Thread connection : connections) {
+            try {
+                connection.join(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        connections.forEach(Thread::interrupt);
+        OutgoingMail leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.result().completeExceptionally(new RejectedExecutionException("Mail transport is closed"));
+        }
+    }
+
+    private void runConnection() {
+        Connection connection = new Connection();
+        List<OutgoingMail> batch = new ArrayList<>(settings.batchSize());
+        long idleSince = System.nanoTime();
+        try {
+            while (running || !queue.isEmpty()) {
+                OutgoingMail first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (System.nanoTime() - idleSince >= settings.idleTimeout().toNanos()) {
+                        // Hang up before the server drops us for idling
+                        connection.close();
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, settings.batchSize() - 1);
+                for (OutgoingMail mail : batch) {
+                    throttle.acquire();
+                    send(connection, mail);
+                }
+                batch.clear();
+                idleSince = System.nanoTime();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            batch.forEach(mail -> mail.result().completeExceptionally(
+                    new RejectedExecutionException("Mail transport is closed")));
+            connection.close();
+        }
+    }
+
+    private void send(Connection connection, OutgoingMail mail) {
+        long start = System.nanoTime();
+        try {
+            connection.send(mail.message());
+        } catch (MessagingException first) {
+            // The server may have dropped a kept-alive connection; retry once on a fresh one
+            log.warn("Failed to send mail through pool {}, retrying on a new connection", settings.name(), first);
+            connection.close();
+            try {
+                connection.send(mail.message());
+            } catch (MessagingException e) {
+                e.addSuppressed(first);
+                connection.close();
+                failures.increment();
+                log.error("Failed to send mail through pool {}", settings.name(), e);
+                mail.result().completeExceptionally(e);
+                return;
+            }
+        }
+        sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        mail.result().complete(null);
+    }
+
+    private class Connection {
+        private Transport transport;
+        private int sent;
+
+        void send(MimeMessage message) throws MessagingException {
+            if (transport == null || sent >= settings.maxMessagesPerConnection()) {
+                close();
+                Transport fresh = session.getTransport();
+                fresh.connect(username, password);
+                transport = fresh;
+                openConnections.incrementAndGet();
+            }
+            transport.sendMessage(message, message.getAllRecipients());
+            sent++;
+        }
+
+        void close() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP connection", e);
+            }
+            transport = null;
+            sent = 0;
+            openConnections.decrementAndGet();
+        }
+    }
+
+    private record OutgoingMail(MimeMessage message, CompletableFuture<Void> result) {
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.common.template;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message body with {@code ${name}} placeholders, parsed once into literal and variable
+ * segments so rendering is a single pass that appends straight into the output buffer.
+ *
+ * <p>Templates loaded from {@code .html} resources escape substituted values; plain text
+ * templates insert them as is. Templates are immutable and safe to share between threads.
+ */
+public final class MessageTemplate {
+
+    private final String name;
+    private final boolean escapeHtml;
+    private final String[] literals;
+    private final String[] variables;
+    private final int literalLength;
+
+    private MessageTemplate(String name, boolean escapeHtml, List<String> literals, List<String> variables) {
+        this.name = name;
+        this.escapeHtml = escapeHtml;
+        this.literals = literals.toArray(String[]::new);
+        this.variables = variables.toArray(String[]::new);
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    /**
+     * Parses {@code source}. There is always one more literal than variables, so rendering
+     * alternates literal, variable, literal, ... and ends on a literal.
+     */
+    public static MessageTemplate compile(String name, String source, boolean escapeHtml) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int pos = 0;
+        int start;
+        while ((start = source.indexOf("${", pos)) >= 0) {
+            int end = source.indexOf('}', start + 2);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in template " + name + " at " + start);
+            }
+            String variable = source.substring(start + 2, end).trim();
+            if (variable.isEmpty()) {
+                throw new IllegalArgumentException("Empty placeholder in template " + name + " at " + start);
+            }
+            literals.add(source.substring(pos, start));
+            variables.add(variable);
+            pos = end + 1;
+        }
+        literals.add(source.substring(pos));
+        return new MessageTemplate(name, escapeHtml, literals, variables);
+    }
+
+    /**
+     * Loads and compiles a UTF-8 classpath resource, escaping values when it is an {@code .html} file.
+     */
+    public static MessageTemplate load(String location) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = MessageTemplate.class.getClassLoader();
+        }
+        try (InputStream in = classLoader.getResourceAsStream(location)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Template not found on classpath: " + location);
+            }
+            String source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return compile(location, source, location.endsWith(".html"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read template " + location, e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Renders into a buffer sized up front for the literals plus the supplied values, so the
+     * only allocations are that buffer and the resulting string.
+     */
+    public String render(Map<String, ?> values) {
+        int capacity = literalLength;
+        for (String variable : variables) {
+            Object value = values.get(variable);
+            capacity += value == null ? 0 : value.toString().length();
+        }
+        StringBuilder out = new StringBuilder(escapeHtml ? capacity + capacity / 8 : capacity);
+        renderTo(out, values);
+        return out.toString();
+    }
+
+    /**
+     * Appends the rendered template to a caller-owned buffer, e.g. one reused for every line of a digest.
+     */
+    public void renderTo(StringBuilder out, Map<String, ?> values) {
+        for (int i = 0; i < variables.length; i++) {
+            out.append(literals[i]);
+            Object value = values.get(variables[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing value for ${" + variables[i] + "} in template " + name);
+            }
+            if (escapeHtml) {
+                appendEscaped(out, value.toString());
+            } else {
+                out.append(value);
+            }
+        }
+        out.append(literals[variables.length]);
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.common.utils;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spaces permits evenly at a fixed rate across all callers. Each caller reserves the next free
+ * slot and parks until it comes up, so there is no burst after an idle period.
+ */
+public class RateLimiter {
+    private final long intervalNanos;
+    private long nextSlot;
+
+    /**
+     * @param permitsPerSecond rate to hold, {@code <= 0} for unlimited
+     */
+    public RateLimiter(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (1_000_000_000L / permitsPerSecond) : 0;
+        this.nextSlot = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long slot;
+        synchronized (this) {
+            long now = System.nanoTime();
+            slot = Math.max(nextSlot, now);
+            nextSlot = slot + intervalNanos;
+        }
+        long wait;
+        while ((wait = slot - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
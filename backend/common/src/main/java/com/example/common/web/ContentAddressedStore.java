@@ -0,0 +1,102 @@
+package com.example.common.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Stores uploads under the SHA-256 of their content, so the same file uploaded twice is kept
+ * once and a name always refers to the same bytes. The upload is streamed into a temporary file
+ * in the target directory while it is hashed, and the copy stops as soon as it passes the size
+ * limit; nothing is held in memory beyond the copy buffer.
+ */
+public class ContentAddressedStore {
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final long maxBytes;
+
+    public ContentAddressedStore(Path directory, long maxBytes) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", e);
+        }
+    }
+
+    /**
+     * Stores the stream under {@code <sha256>.<extension>}, taking the extension from the original
+     * file name when it is a plain one.
+     *
+     * @throws IOException when the stream cannot be read or written, or is larger than the limit
+     */
+    public StoredFile store(InputStream content, String originalFileName) throws IOException {
+        String extension = extension(originalFileName);
+        Path temporary = Files.createTempFile(directory, ".upload-", ".tmp");
+        try {
+            String hash = copy(content, temporary);
+            Path target = directory.resolve(extension.isEmpty() ? hash : hash + "." + extension);
+            if (Files.exists(target)) {
+                Files.delete(temporary);
+                return new StoredFile(target.getFileName().toString(), target, false);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            return new StoredFile(target.getFileName().toString(), target, true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    private String copy(InputStream content, Path temporary) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        try (OutputStream output = Files.newOutputStream(temporary)) {
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new IOException("Upload exceeds the limit of " + maxBytes + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                output.write(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String extension(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @param created false when identical content was already stored under this name
+     */
+    public record StoredFile(String name, Path path, boolean created) {
+    }
+}
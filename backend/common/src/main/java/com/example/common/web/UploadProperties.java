@@ -0,0 +1,21 @@
+package com.example.common.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * The {@code app.uploads} settings shared by every service that stores and serves uploads.
+ *
+ * @param root            directory the uploads live in
+ * @param hotCacheBytes   total size of files {@link UploadServer} keeps in memory, 0 to disable
+ * @param hotFileMaxBytes largest file kept in memory
+ * @param mutableMaxAge   max-age for responses that may still change
+ */
+@ConfigurationProperties("app.uploads")
+public record UploadProperties(
+        @DefaultValue("uploads") String root,
+        @DefaultValue("33554432") long hotCacheBytes,
+        @DefaultValue("262144") long hotFileMaxBytes,
+        @DefaultValue("60s") Duration mutableMaxAge) {}
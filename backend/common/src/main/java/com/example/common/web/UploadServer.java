@@ -0,0 +1,254 @@
+package com.example.common.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves uploaded files straight off disk with conditional GET, single byte ranges and cache
+ * headers. Under Tomcat the body goes out with sendfile once the request thread has returned,
+ * so large images never occupy an API thread while they stream; elsewhere it is copied with
+ * {@link FileChannel#transferTo}. Small files are kept in an LRU of bounded total size and
+ * written from memory.
+ *
+ * <p>Uploads are never rewritten under the same name, so they can be marked immutable. The one
+ * exception is {@code ?w=<width>}: it picks the nearest {@link UploadVariants variant}, and while
+ * variants are still being generated the original served in their place gets a short max-age.
+ */
+public class UploadServer {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final Pattern SEGMENT = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private final Path root;
+    private final long hotCacheBytes;
+    private final long hotFileMaxBytes;
+    private final String mutableCacheControl;
+    private final UploadVariants variants;
+    private final LinkedHashMap<Path, HotFile> hot = new LinkedHashMap<>(64, 0.75f, true);
+    private long hotBytes;
+
+    /**
+     * @param variants resized copies to serve for a requested width, or null when there are none
+     */
+    public UploadServer(UploadProperties properties, UploadVariants variants) {
+        this.root = Paths.get(properties.root()).toAbsolutePath().normalize();
+        this.hotCacheBytes = properties.hotCacheBytes();
+        this.hotFileMaxBytes = properties.hotFileMaxBytes();
+        this.mutableCacheControl = "public, max-age=" + properties.mutableMaxAge().toSeconds();
+        this.variants = variants;
+    }
+
+    /**
+     * Serves the upload at a path below the root, or the nearest variant of it when a width is
+     * given; answers 404 when there is no such upload.
+     *
+     * @param width requested width in pixels, or null for the original
+     */
+    public void serve(String relativePath, Integer width, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Path original = resolve(relativePath);
+        if (original == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (width == null || width <= 0 || variants == null) {
+            serve(original, true, request, response);
+            return;
+        }
+        Path variant = variants.variantFor(original, width);
+        // While variants are pending, a better match may still appear under this URL
+        serve(variant != null ? variant : original, !variants.isPending(original), request, response);
+    }
+
+    /**
+     * Maps a request path below the upload root to a regular file, or null when the path has an
+     * unexpected segment or no such file exists.
+     */
+    Path resolve(String relativePath) {
+        if (relativePath == null || relativePath.isEmpty()) {
+            return null;
+        }
+        Path file = root;
+        for (String segment : relativePath.split("/")) {
+            if (!SEGMENT.matcher(segment).matches()) {
+                return null;
+            }
+            file = file.resolve(segment);
+        }
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    void serve(Path file, boolean immutable, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(modified) + "\"";
+
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", modified);
+        response.setHeader("Cache-Control", immutable ? IMMUTABLE : mutableCacheControl);
+        response.setHeader("Accept-Ranges", "bytes");
+        if (notModified(request, etag, modified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String contentType = request.getServletContext().getMimeType(file.getFileName().toString());
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+
+        long start = 0;
+        long end = length;
+        long[] range = range(request, etag, length);
+        if (range != null && range.length == 0) {
+            response.setHeader("Content-Range", "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (range != null) {
+            start = range[0];
+            end = range[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", "bytes " + start + "-" + (end - 1) + "/" + length);
+        }
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        byte[] cached = hotFile(file, length, modified);
+        if (cached != null) {
+            response.getOutputStream().write(cached, (int) start, (int) (end - start));
+        } else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+        } else {
+            transfer(file, start, end, response.getOutputStream());
+        }
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long modified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals(etag) || tag.equals("*")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        // Header dates have whole seconds
+        return ifModifiedSince >= 0 && modified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * The requested byte range as [start, end), null for the whole file, or an empty array when
+     * the range cannot be satisfied. Multiple ranges are answered with the whole file.
+     */
+    private static long[] range(HttpServletRequest request, String etag, long length) {
+        String header = request.getHeader("Range");
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        Matcher matcher = RANGE.matcher(header.trim());
+        if (!matcher.matches() || matcher.group(1).isEmpty() && matcher.group(2).isEmpty()) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (matcher.group(1).isEmpty()) {
+                // Suffix range: the last N bytes
+                start = Math.max(0, length - Long.parseLong(matcher.group(2)));
+                end = length;
+            } else {
+                start = Long.parseLong(matcher.group(1));
+                end = matcher.group(2).isEmpty() ? length : Math.min(length, Long.parseLong(matcher.group(2)) + 1);
+            }
+            return start >= length || start >= end ? new long[0] : new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private byte[] hotFile(Path file, long length, long modified) throws IOException {
+        if (length > hotFileMaxBytes || length > hotCacheBytes) {
+            return null;
+        }
+        synchronized (hot) {
+            HotFile cached = hot.get(file);
+            if (cached != null && cached.modified() == modified && cached.bytes().length == length) {
+                return cached.bytes();
+            }
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length != length) {
+            // Changed since its size was read; stream it from disk instead
+            return null;
+        }
+        synchronized (hot) {
+            HotFile previous = hot.put(file, new HotFile(bytes, modified));
+            hotBytes += bytes.length - (previous == null ? 0 : previous.bytes().length);
+            var eldest = hot.entrySet().iterator();
+            while (hotBytes > hotCacheBytes && eldest.hasNext()) {
+                Map.Entry<Path, HotFile> entry = eldest.next();
+                hotBytes -= entry.getValue().bytes().length;
+                eldest.remove();
+            }
+        }
+        return bytes;
+    }
+
+    private static void transfer(Path file, long start, long end, OutputStream output) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(output);
+            long position = start;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    throw new IOException("File shrank while it was sent: " + file);
+                }
+                position += sent;
+            }
+        }
+    }
+
+    private record HotFile(byte[] bytes, long modified) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.common.web;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Builds the service's {@link UploadServer} from the {@code app.uploads} settings, serving
+ * variants when the service has an {@link UploadVariants} bean. Services that serve uploads
+ * {@code @Import} it.
+ */
+@Configuration
+@EnableConfigurationProperties(UploadProperties.class)
+public class UploadServerConfig {
+
+    @Bean
+    public UploadServer uploadServer(UploadProperties properties, ObjectProvider<UploadVariants> variants) {
+        return new UploadServer(properties, variants.getIfAvailable());
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.common.web;
+
+import java.nio.file.Path;
+
+/**
+ * Resized copies of uploaded images, which {@link UploadServer} serves for {@code ?w=<width>}.
+ */
+public interface UploadVariants {
+
+    /**
+     * The stored variant closest to {@code width}, or null when the image has none.
+     */
+    Path variantFor(Path original, int width);
+
+    /**
+     * Whether variants of the image are still being generated, so a better match may appear.
+     */
+    boolean isPending(Path original);
+}
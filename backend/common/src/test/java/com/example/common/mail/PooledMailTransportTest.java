@@ -0,0 +1,168 @@
+package com.example.common.mail;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Message;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PooledMailTransportTest {
+
+        private StubSmtpServer smtpServer;
+        private SimpleMeterRegistry meterRegistry;
+
+        @BeforeEach
+        void setUp() throws IOException {
+                smtpServer = new StubSmtpServer();
+                meterRegistry = new SimpleMeterRegistry();
+        }
+
+        @AfterEach
+        void tearDown() throws IOException {
+                smtpServer.close();
+        }
+
+        @Test
+        void shouldSendBatchesOverKeptAliveConnections() throws Exception {
+                PooledMailTransport transport = newTransport(2, 0);
+
+                List<CompletableFuture<Void>> results = new ArrayList<>();
+                for (int i = 0; i < 30; i++) {
+                        results.add(transport.submit(message(transport, "Order " + i)));
+                }
+                CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+                transport.close();
+
+                assertThat(smtpServer.messages).hasSize(30);
+                // Every message went over one of the two pooled connections
+                assertThat(smtpServer.connections.get()).isLessThanOrEqualTo(2);
+                assertThat(meterRegistry.get("mail.transport.send").timer().count()).isEqualTo(30);
+                assertThat(meterRegistry.get("mail.transport.queue.depth").gauge().value()).isZero();
+        }
+
+        @Test
+        void shouldThrottleToConfiguredRate() throws Exception {
+                PooledMailTransport transport = newTransport(2, 20);
+
+                long start = System.nanoTime();
+                List<CompletableFuture<Void>> results = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                        results.add(transport.submit(message(transport, "Throttled " + i)));
+                }
+                CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                transport.close();
+
+                // 10 messages at 20/s leave nine 50ms gaps between sends
+                assertThat(elapsedMs).isGreaterThanOrEqualTo(400);
+                assertThat(smtpServer.messages).hasSize(10);
+        }
+
+        private PooledMailTransport newTransport(int connections, double messagesPerSecond) {
+                Properties props = new Properties();
+                props.put("mail.transport.protocol", "smtp");
+                props.put("mail.smtp.host", "localhost");
+                props.put("mail.smtp.port", String.valueOf(smtpServer.port()));
+                MailTransportSettings settings = new MailTransportSettings("test", connections, 10, 100,
+                                messagesPerSecond, Duration.ofSeconds(30), 100);
+                return new PooledMailTransport(Session.getInstance(props), null, null, settings, meterRegistry);
+        }
+
+        private MimeMessage message(PooledMailTransport transport, String subject) throws Exception {
+                MimeMessage message = transport.createMimeMessage();
+                message.setFrom(new InternetAddress("no-reply@example.com"));
+                message.setRecipient(Message.RecipientType.TO, new InternetAddress("customer@example.com"));
+                message.setSubject(subject);
+                message.setText("Body of " + subject);
+                return message;
+        }
+
+        /**
+         * Just enough of SMTP for Jakarta Mail to hand over messages; records each one and counts
+         * how many connections were opened.
+         */
+        private static class StubSmtpServer implements AutoCloseable {
+                private final ServerSocket serverSocket = new ServerSocket(0);
+                private final List<String> messages = new CopyOnWriteArrayList<>();
+                private final AtomicInteger connections = new AtomicInteger();
+
+                StubSmtpServer() throws IOException {
+                        Thread.ofPlatform().daemon().start(this::acceptLoop);
+                }
+
+                int port() {
+                        return serverSocket.getLocalPort();
+                }
+
+                private void acceptLoop() {
+                        while (!serverSocket.isClosed()) {
+                                try {
+                                        Socket socket = serverSocket.accept();
+                                        connections.incrementAndGet();
+                                        Thread.ofPlatform().daemon().start(() -> converse(socket));
+                                } catch (IOException e) {
+                                        return;
+                                }
+                        }
+                }
+
+                private void converse(Socket socket) {
+                        try (socket;
+                                        BufferedReader in = new BufferedReader(
+                                                        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                                        PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                                reply(out, "220 localhost stub");
+                                String line;
+                                while ((line = in.readLine()) != null) {
+                                        String command = line.toUpperCase();
+                                        if (command.startsWith("DATA")) {
+                                                reply(out, "354 go ahead");
+                                                StringBuilder data = new StringBuilder();
+                                                while (!(line = in.readLine()).equals(".")) {
+                                                        data.append(line).append('\n');
+                                                }
+                                                messages.add(data.toString());
+                                                reply(out, "250 queued");
+                                        } else if (command.startsWith("QUIT")) {
+                                                reply(out, "221 bye");
+                                                return;
+                                        } else {
+                                                reply(out, "250 ok");
+                                        }
+                                }
+                        } catch (IOException ignored) {
+                        }
+                }
+
+                private void reply(PrintWriter out, String line) {
+                        out.print(line + "\r\n");
+                        out.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                        serverSocket.close();
+                }
+        }
+}
@@ -0,0 +1,46 @@
+package com.example.common.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MessageTemplateTest {
+
+        @Test
+        void shouldSubstituteEveryPlaceholder() {
+                MessageTemplate template = MessageTemplate.compile("order", "Order ${orderId}: ${status}.", false);
+
+                assertThat(template.render(Map.of("orderId", "42", "status", "paid"))).isEqualTo("Order 42: paid.");
+        }
+
+        @Test
+        void shouldEscapeValuesInHtmlTemplates() {
+                MessageTemplate template = MessageTemplate.compile("link", "<a href=\"${link}\">${label}</a>", true);
+
+                assertThat(template.render(Map.of("link", "https://x.test/?a=1&b=2", "label", "<b>Go</b>")))
+                                .isEqualTo("<a href=\"https://x.test/?a=1&amp;b=2\">&lt;b&gt;Go&lt;/b&gt;</a>");
+        }
+
+        @Test
+        void shouldAppendToReusedBuffer() {
+                MessageTemplate line = MessageTemplate.compile("line", "- ${orderId}\n", false);
+                StringBuilder buffer = new StringBuilder();
+
+                line.renderTo(buffer, Map.of("orderId", "1"));
+                line.renderTo(buffer, Map.of("orderId", "2"));
+
+                assertThat(buffer.toString()).isEqualTo("- 1\n- 2\n");
+        }
+
+        @Test
+        void shouldRejectMissingValuesAndMalformedTemplates() {
+                MessageTemplate template = MessageTemplate.compile("order", "Order ${orderId}", false);
+
+                assertThatThrownBy(() -> template.render(Map.of())).isInstanceOf(IllegalArgumentException.class);
+                assertThatThrownBy(() -> MessageTemplate.compile("bad", "Order ${orderId", false))
+                                .isInstanceOf(IllegalArgumentException.class);
+        }
+}
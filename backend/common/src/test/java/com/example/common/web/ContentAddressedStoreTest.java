@@ -0,0 +1,60 @@
+package com.example.common.web;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ContentAddressedStoreTest {
+
+        @TempDir
+        Path root;
+
+        @Test
+        void shouldStoreIdenticalContentOnce() throws Exception {
+                ContentAddressedStore store = new ContentAddressedStore(root, 1024);
+
+                ContentAddressedStore.StoredFile first = store.store(stream("same image"), "Photo.JPG");
+                ContentAddressedStore.StoredFile second = store.store(stream("same image"), "other.jpg");
+                ContentAddressedStore.StoredFile other = store.store(stream("another image"), "photo.jpg");
+
+                assertThat(first.created()).isTrue();
+                assertThat(first.name()).matches("[0-9a-f]{64}\\.jpg");
+                assertThat(second.created()).isFalse();
+                assertThat(second.name()).isEqualTo(first.name());
+                assertThat(other.name()).isNotEqualTo(first.name());
+                assertThat(Files.readString(first.path())).isEqualTo("same image");
+                assertThat(files()).hasSize(2);
+
+                // Anything but a plain extension is dropped rather than trusted
+                assertThat(store.store(stream("x"), "evil.j/pg").name()).matches("[0-9a-f]{64}");
+        }
+
+        @Test
+        void shouldAbortUploadsOverTheLimit() throws Exception {
+                ContentAddressedStore store = new ContentAddressedStore(root, 4);
+
+                assertThatThrownBy(() -> store.store(stream("too large"), "a.png"))
+                                .isInstanceOf(IOException.class);
+                assertThat(files()).isEmpty();
+                assertThat(store.store(stream("fits"), "a.png").created()).isTrue();
+        }
+
+        private static ByteArrayInputStream stream(String content) {
+                return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private List<Path> files() throws IOException {
+                try (var paths = Files.list(root)) {
+                        return paths.toList();
+                }
+        }
+}
@@ -0,0 +1,106 @@
+package com.example.common.web;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UploadServerTest {
+
+        @TempDir
+        Path root;
+
+        @Test
+        void shouldServeRangesAndRevalidate() throws Exception {
+                Files.writeString(root.resolve("a.txt"), "0123456789");
+                // Nothing is kept in memory, so the body is streamed from the file
+                UploadServer server = new UploadServer(new UploadProperties(root.toString(), 0, 0, Duration.ofMinutes(1)), null);
+                Path file = server.resolve("a.txt");
+
+                MockHttpServletResponse partial = serve(server, file, "Range", "bytes=2-4");
+                assertThat(partial.getStatus()).isEqualTo(206);
+                assertThat(partial.getHeader("Content-Range")).isEqualTo("bytes 2-4/10");
+                assertThat(partial.getContentAsString()).isEqualTo("234");
+                assertThat(partial.getHeader("Cache-Control")).contains("immutable");
+
+                assertThat(serve(server, file, "Range", "bytes=-3").getContentAsString()).isEqualTo("789");
+                assertThat(serve(server, file, "Range", "bytes=20-").getStatus()).isEqualTo(416);
+
+                String etag = partial.getHeader("ETag");
+                MockHttpServletResponse revalidated = serve(server, file, "If-None-Match", etag);
+                assertThat(revalidated.getStatus()).isEqualTo(304);
+                assertThat(revalidated.getContentAsByteArray()).isEmpty();
+        }
+
+        @Test
+        void shouldServeSmallFilesFromMemoryAndRejectUnsafePaths() throws Exception {
+                Files.writeString(root.resolve("b.txt"), "hello");
+                UploadServer server = new UploadServer(new UploadProperties(root.toString(), 1024, 1024, Duration.ofMinutes(1)), null);
+                Path file = server.resolve("b.txt");
+
+                assertThat(serve(server, file, "Accept", "*/*").getContentAsString()).isEqualTo("hello");
+                // Same size and timestamp, so the cached copy is still served
+                Files.write(file, "HELLO".getBytes(StandardCharsets.UTF_8));
+                Files.setLastModifiedTime(file, Files.getLastModifiedTime(file));
+                assertThat(serve(server, file, "Accept", "*/*").getContentLengthLong()).isEqualTo(5);
+
+                assertThat(server.resolve("../b.txt")).isNull();
+                assertThat(server.resolve(".hidden")).isNull();
+                assertThat(server.resolve("missing.txt")).isNull();
+        }
+
+        @Test
+        void shouldServeTheNearestVariantAndKeepFallbacksShortLived() throws Exception {
+                Files.writeString(root.resolve("c.jpg"), "original");
+                Files.writeString(root.resolve("c-w200.jpg"), "small");
+                Set<Path> pending = new HashSet<>();
+                UploadVariants variants = new UploadVariants() {
+                        @Override
+                        public Path variantFor(Path original, int width) {
+                                return width <= 200 ? original.resolveSibling("c-w200.jpg") : null;
+                        }
+
+                        @Override
+                        public boolean isPending(Path original) {
+                                return pending.contains(original);
+                        }
+                };
+                UploadServer server = new UploadServer(new UploadProperties(root.toString(), 0, 0, Duration.ofMinutes(1)),
+                                variants);
+
+                MockHttpServletResponse small = serve(server, "c.jpg", 150);
+                assertThat(small.getContentAsString()).isEqualTo("small");
+                assertThat(small.getHeader("Cache-Control")).contains("immutable");
+
+                pending.add(server.resolve("c.jpg"));
+                MockHttpServletResponse fallback = serve(server, "c.jpg", 800);
+                assertThat(fallback.getContentAsString()).isEqualTo("original");
+                assertThat(fallback.getHeader("Cache-Control")).isEqualTo("public, max-age=60");
+
+                assertThat(serve(server, "missing.jpg", 150).getStatus()).isEqualTo(404);
+        }
+
+        private static MockHttpServletResponse serve(UploadServer server, String name, Integer width) throws Exception {
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                server.serve(name, width, new MockHttpServletRequest("GET", "/uploads/" + name), response);
+                return response;
+        }
+
+        private static MockHttpServletResponse serve(UploadServer server, Path file, String header, String value)
+                        throws Exception {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + file.getFileName());
+                request.addHeader(header, value);
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                server.serve(file, true, request, response);
+                return response;
+        }
+}
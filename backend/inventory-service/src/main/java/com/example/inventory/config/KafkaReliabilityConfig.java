@@ -1,5 +1,6 @@
 package com.example.inventory.config;
 
+import com.example.common.constants.KafkaConstants;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,6 +22,14 @@ public class KafkaReliabilityConfig {
         );
     }
 
+    @Bean
+    public NewTopic stockEventsTopic() {
+        return TopicBuilder.name(KafkaConstants.STOCK_EVENTS_TOPIC)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
     @Bean
     public NewTopic inventoryDLQTopic() {
         return TopicBuilder.name("orders.events.DLT")
@@ -1,21 +1,33 @@
 package com.example.inventory.service;
 
+import com.example.common.constants.KafkaConstants;
 import com.example.common.event.BaseEvent;
 import com.example.common.event.OrderCreatedEvent;
+import com.example.common.event.StockRestockedEvent;
 import com.example.inventory.domain.ProductInventory;
 import com.example.inventory.repository.InventoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class InventoryService {
     private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
     private final InventoryRepository inventoryRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
 
-    public InventoryService(InventoryRepository inventoryRepository) {
+    public InventoryService(InventoryRepository inventoryRepository, KafkaTemplate<String, String> kafkaTemplate,
+            ObjectMapper objectMapper) {
         this.inventoryRepository = inventoryRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
     }
 
     @Transactional(readOnly = true)
@@ -37,11 +49,16 @@ public class InventoryService {
 
     @Transactional
     public void setInventory(String productId, Integer quantity) {
-        ProductInventory inventory = inventoryRepository.findById(productId)
-                .orElseGet(() -> new ProductInventory(productId, 0));
+        ProductInventory existing = inventoryRepository.findById(productId).orElse(null);
+        ProductInventory inventory = existing != null ? existing : new ProductInventory(productId, 0);
+        Integer previous = inventory.getAvailableQuantity();
         inventory.setAvailableQuantity(quantity);
         inventoryRepository.save(inventory);
         log.info("Reset inventory for product: {} to quantity: {}", productId, quantity);
+        // A product seen for the first time was never out of stock
+        if (existing != null) {
+            publishIfRestocked(productId, previous, quantity);
+        }
     }
 
     @Transactional
@@ -55,12 +72,47 @@ public class InventoryService {
     @Transactional
     public void updateStock(String productId, Integer quantityChange) {
         ProductInventory inventory = getInventory(productId);
-        int newQuantity = inventory.getAvailableQuantity() + quantityChange;
+        int previous = inventory.getAvailableQuantity();
+        int newQuantity = previous + quantityChange;
         if (newQuantity < 0) {
             throw new RuntimeException("Insufficient stock for product: " + productId);
         }
         inventory.setAvailableQuantity(newQuantity);
         inventoryRepository.save(inventory);
         log.info("Updated stock for product: {}. New quantity: {}", productId, newQuantity);
+        publishIfRestocked(productId, previous, newQuantity);
+    }
+
+    /**
+     * Tells the product service when stock comes back, so it can alert the users waiting for it.
+     * Sent once the change commits; a crash in between loses the alert, never the stock.
+     */
+    private void publishIfRestocked(String productId, Integer previous, Integer quantity) {
+        if (previous == null || previous > 0 || quantity == null || quantity <= 0) {
+            return;
+        }
+        String message;
+        try {
+            message = objectMapper.writeValueAsString(BaseEvent.create(KafkaConstants.STOCK_RESTOCKED_V1,
+                    new StockRestockedEvent(productId, quantity), null));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize restock event for product: " + productId, e);
+        }
+        Runnable send = () -> kafkaTemplate.send(KafkaConstants.STOCK_EVENTS_TOPIC, productId, message)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        log.error("Failed to publish restock of product: {}", productId, e);
+                    }
+                });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send.run();
+            }
+        });
     }
 }
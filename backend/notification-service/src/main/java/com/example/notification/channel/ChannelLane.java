@@ -0,0 +1,176 @@
+package com.example.notification.channel;
+
+import com.example.common.utils.RateLimiter;
+import com.example.notification.domain.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One channel's queue, workers, rate limit and retry loop. Each lane is drained by its own
+ * virtual threads, so lanes never wait on each other.
+ */
+public class ChannelLane {
+    private static final Logger log = LoggerFactory.getLogger(ChannelLane.class);
+
+    private final NotificationChannel channel;
+    private final ChannelSettings settings;
+    private final BlockingQueue<Task> queue;
+    // Tasks accepted past the capacity while the caller holds back its source
+    private final ConcurrentLinkedQueue<Task> overflow = new ConcurrentLinkedQueue<>();
+    private final RateLimiter rateLimiter;
+    private final Timer sendTimer;
+    private final Counter failures;
+    private final Counter dropped;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public ChannelLane(NotificationChannel channel, MeterRegistry meterRegistry) {
+        this.channel = channel;
+        this.settings = channel.settings();
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+        this.rateLimiter = new RateLimiter(settings.ratePerSecond());
+        this.sendTimer = Timer.builder("notification.channel.send")
+                .description("Time to deliver a notification on a channel, including retries")
+                .tag("channel", channel.name())
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.failures = Counter.builder("notification.channel.failures")
+                .tag("channel", channel.name())
+                .register(meterRegistry);
+        this.dropped = Counter.builder("notification.channel.dropped")
+                .tag("channel", channel.name())
+                .register(meterRegistry);
+        Gauge.builder("notification.channel.queue.depth", queue, BlockingQueue::size)
+                .tag("channel", channel.name())
+                .register(meterRegistry);
+    }
+
+    public String name() {
+        return channel.name();
+    }
+
+    public boolean isBestEffort() {
+        return settings.bestEffort();
+    }
+
+    public void start() {
+        running = true;
+        for (int i = 0; i < settings.workers(); i++) {
+            workers.add(Thread.ofVirtual().name("notification-" + channel.name() + "-" + i).start(this::drain));
+        }
+    }
+
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Queues without blocking; {@code onDone} later receives whether the send succeeded.
+     * Returns false when the queue is full.
+     */
+    public boolean offer(Notification notification, Consumer<Boolean> onDone) {
+        return queue.offer(new Task(notification, onDone));
+    }
+
+    /**
+     * Queues even when the lane is full, holding the task aside until a worker frees a slot, so
+     * the caller never blocks. Only for callers that stop producing while the lane is full, as
+     * the overflow is unbounded.
+     */
+    public void enqueue(Notification notification, Consumer<Boolean> onDone) {
+        Task task = new Task(notification, onDone);
+        if (!queue.offer(task)) {
+            overflow.add(task);
+            refill();
+        }
+    }
+
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    public boolean isBelowHalf() {
+        return overflow.isEmpty() && queue.size() <= settings.queueCapacity() / 2;
+    }
+
+    private void drain() {
+        while (running) {
+            Task task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            refill();
+            long start = System.nanoTime();
+            boolean sent;
+            try {
+                sent = deliver(task.notification());
+            } catch (InterruptedException e) {
+                // Shutting down; the task never completes so its records stay unacknowledged
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (sent) {
+                sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } else {
+                failures.increment();
+            }
+            task.onDone().accept(sent);
+        }
+    }
+
+    /**
+     * Moves overflow tasks into the queue while there is room. Called by whoever last changed
+     * either side, so no task is left behind while workers wait.
+     */
+    private void refill() {
+        if (overflow.isEmpty()) {
+            return;
+        }
+        synchronized (overflow) {
+            Task task;
+            while ((task = overflow.peek()) != null && queue.offer(task)) {
+                overflow.poll();
+            }
+        }
+    }
+
+    private boolean deliver(Notification notification) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire();
+            try {
+                channel.send(notification);
+                return true;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (attempt >= settings.maxAttempts()) {
+                    log.error("Giving up on {} notification for orders {} after {} attempts",
+                            channel.name(), notification.orderIds(), attempt, e);
+                    return false;
+                }
+                log.warn("{} notification for orders {} failed (attempt {}/{}), retrying",
+                        channel.name(), notification.orderIds(), attempt, settings.maxAttempts(), e);
+                Thread.sleep(settings.retryBackoffMs() * attempt);
+            }
+        }
+    }
+
+    private record Task(Notification notification, Consumer<Boolean> onDone) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.notification.channel;
+
+/**
+ * How a channel's lane runs.
+ *
+ * @param enabled          whether notifications are routed to the channel at all
+ * @param workers          virtual threads sending concurrently
+ * @param queueCapacity    notifications that may wait for a worker
+ * @param ratePerSecond    sends per second across the lane, {@code <= 0} for unlimited
+ * @param maxAttempts      tries per notification before it counts as failed
+ * @param retryBackoffMs   wait before the second try, growing linearly after that
+ * @param bestEffort       a full queue or a failed send is logged and counted but does not hold
+ *                         back or dead-letter the event; required channels apply backpressure instead
+ */
+public record ChannelSettings(
+        boolean enabled,
+        int workers,
+        int queueCapacity,
+        double ratePerSecond,
+        int maxAttempts,
+        long retryBackoffMs,
+        boolean bestEffort) {
+}
@@ -0,0 +1,76 @@
+package com.example.notification.channel;
+
+import com.example.common.mail.PooledMailTransport;
+import com.example.notification.domain.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+
+@Component
+public class EmailChannel implements NotificationChannel {
+
+    private final PooledMailTransport mailTransport;
+    private final String from;
+    private final String fallbackTo;
+    private final ChannelSettings settings;
+    private final Counter fallbacks;
+
+    public EmailChannel(PooledMailTransport mailTransport, MeterRegistry meterRegistry,
+            @Value("${app.notification.mail.from:no-reply@example.com}") String from,
+            @Value("${app.notification.mail.fallback-to:orders@example.com}") String fallbackTo,
+            @Value("${app.notification.channels.email.enabled:true}") boolean enabled,
+            @Value("${app.notification.channels.email.workers:16}") int workers,
+            @Value("${app.notification.channels.email.queue-capacity:1000}") int queueCapacity,
+            @Value("${app.notification.channels.email.rate-per-second:0}") double ratePerSecond,
+            @Value("${app.notification.channels.email.max-attempts:3}") int maxAttempts,
+            @Value("${app.notification.channels.email.retry-backoff-ms:500}") long retryBackoffMs) {
+        this.mailTransport = mailTransport;
+        this.from = from;
+        this.fallbackTo = fallbackTo;
+        this.settings = new ChannelSettings(enabled, workers, queueCapacity, ratePerSecond, maxAttempts,
+                retryBackoffMs, false);
+        this.fallbacks = meterRegistry.counter("notification.email.fallback");
+    }
+
+    @Override
+    public String name() {
+        return "email";
+    }
+
+    @Override
+    public ChannelSettings settings() {
+        return settings;
+    }
+
+    /**
+     * Sends to the customer's address, or to the fallback mailbox when the order event carried
+     * none or its order is unknown, so the update still reaches someone who can pass it on; those
+     * are counted as {@code notification.email.fallback}. Blocks until the SMTP server
+     * accepted the message, so the records are only acknowledged once the email is actually out.
+     */
+    @Override
+    public void send(Notification notification) throws MessagingException, InterruptedException {
+        MimeMessage message = mailTransport.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message);
+        helper.setFrom(from);
+        boolean fallback = notification.email() == null;
+        helper.setTo(fallback ? fallbackTo : notification.email());
+        helper.setSubject(notification.subject());
+        helper.setText(notification.body());
+        try {
+            mailTransport.submit(message).get();
+            if (fallback) {
+                fallbacks.increment();
+            }
+        } catch (ExecutionException e) {
+            throw new MessagingException("Failed to send notification for orders " + notification.orderIds(),
+                    e.getCause() instanceof Exception cause ? cause : e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.notification.channel;
+
+import com.example.notification.domain.Notification;
+
+/**
+ * A way of reaching the customer. Every enabled channel gets its own {@link ChannelLane}, so a
+ * slow channel only ever delays itself.
+ */
+public interface NotificationChannel {
+
+    String name();
+
+    ChannelSettings settings();
+
+    /**
+     * Delivers the notification, blocking until done. Throwing counts as a failed attempt.
+     */
+    void send(Notification notification) throws Exception;
+}
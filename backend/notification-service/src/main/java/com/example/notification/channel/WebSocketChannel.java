@@ -0,0 +1,107 @@
+package com.example.notification.channel;
+
+import com.example.notification.domain.Notification;
+import com.example.notification.security.JwtHandshakeInterceptor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-app push: the frontend opens {@code /ws/notifications} with its JWT and receives the
+ * notifications of the customer the token was issued to, as JSON text frames. Customers without
+ * an open socket are skipped.
+ */
+@Component
+public class WebSocketChannel extends TextWebSocketHandler implements NotificationChannel {
+    private static final Logger log = LoggerFactory.getLogger(WebSocketChannel.class);
+    private static final int SEND_TIME_LIMIT_MS = 5000;
+    private static final int BUFFER_SIZE_LIMIT = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final ChannelSettings settings;
+    private final Map<String, Set<WebSocketSession>> sessionsByCustomer = new ConcurrentHashMap<>();
+
+    public WebSocketChannel(ObjectMapper objectMapper,
+            @Value("${app.notification.channels.websocket.enabled:true}") boolean enabled,
+            @Value("${app.notification.channels.websocket.workers:2}") int workers,
+            @Value("${app.notification.channels.websocket.queue-capacity:1000}") int queueCapacity,
+            @Value("${app.notification.channels.websocket.rate-per-second:0}") double ratePerSecond,
+            @Value("${app.notification.channels.websocket.max-attempts:1}") int maxAttempts,
+            @Value("${app.notification.channels.websocket.retry-backoff-ms:0}") long retryBackoffMs) {
+        this.objectMapper = objectMapper;
+        this.settings = new ChannelSettings(enabled, workers, queueCapacity, ratePerSecond, maxAttempts,
+                retryBackoffMs, true);
+    }
+
+    @Override
+    public String name() {
+        return "websocket";
+    }
+
+    @Override
+    public ChannelSettings settings() {
+        return settings;
+    }
+
+    @Override
+    public void send(Notification notification) throws IOException {
+        if (notification.customerId() == null) {
+            return;
+        }
+        Set<WebSocketSession> sessions = sessionsByCustomer.get(notification.customerId());
+        if (sessions == null || sessions.isEmpty()) {
+            return;
+        }
+        TextMessage message = new TextMessage(objectMapper.writeValueAsString(notification));
+        for (WebSocketSession session : sessions) {
+            try {
+                session.sendMessage(message);
+            } catch (IOException | IllegalStateException e) {
+                // The decorator closes sessions that stay too slow; the client reconnects
+                log.debug("Dropping push to session {}", session.getId(), e);
+            }
+        }
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        String customerId = customerId(session);
+        if (customerId == null) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Not authenticated"));
+            return;
+        }
+        sessionsByCustomer.computeIfAbsent(customerId, key -> ConcurrentHashMap.newKeySet())
+                .add(new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, BUFFER_SIZE_LIMIT));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        String customerId = customerId(session);
+        if (customerId == null) {
+            return;
+        }
+        sessionsByCustomer.computeIfPresent(customerId, (key, sessions) -> {
+            sessions.removeIf(s -> s.getId().equals(session.getId()));
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    /**
+     * Set by {@link JwtHandshakeInterceptor} from the token's subject.
+     */
+    private static String customerId(WebSocketSession session) {
+        return (String) session.getAttributes().get(JwtHandshakeInterceptor.CUSTOMER_ID_ATTRIBUTE);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.notification.channel;
+
+import com.example.notification.domain.Notification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * POSTs each notification as JSON to a configured endpoint. Disabled while no URL is set.
+ */
+@Component
+public class WebhookChannel implements NotificationChannel {
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+    private final ChannelSettings settings;
+    private final HttpClient httpClient;
+
+    public WebhookChannel(ObjectMapper objectMapper,
+            @Value("${app.notification.channels.webhook.url:}") String url,
+            @Value("${app.notification.channels.webhook.timeout-ms:5000}") long timeoutMs,
+            @Value("${app.notification.channels.webhook.workers:4}") int workers,
+            @Value("${app.notification.channels.webhook.queue-capacity:500}") int queueCapacity,
+            @Value("${app.notification.channels.webhook.rate-per-second:20}") double ratePerSecond,
+            @Value("${app.notification.channels.webhook.max-attempts:5}") int maxAttempts,
+            @Value("${app.notification.channels.webhook.retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.objectMapper = objectMapper;
+        this.url = url.isBlank() ? null : URI.create(url);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.settings = new ChannelSettings(this.url != null, workers, queueCapacity, ratePerSecond,
+                maxAttempts, retryBackoffMs, true);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public ChannelSettings settings() {
+        return settings;
+    }
+
+    @Override
+    public void send(Notification notification) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(notification)))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Webhook " + url + " answered " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.notification.config;
+
+import com.example.common.constants.KafkaConstants;
+import com.example.notification.consumer.NotificationConsumer;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+@Configuration
+public class KafkaReliabilityConfig {
+
+    public static final String PAYMENT_EVENTS_DLT = deadLetterTopic(KafkaConstants.PAYMENT_EVENTS_TOPIC);
+
+    public static String deadLetterTopic(String topic) {
+        return topic + ".DLT";
+    }
+
+    @Bean
+    public DefaultErrorHandler errorHandler(KafkaTemplate<Object, Object> template) {
+        // Unreadable events are retried, then parked on <topic>.DLT; a negative partition lets
+        // Kafka pick one, so a dead-letter topic needs no more partitions than the one it mirrors
+        return new DefaultErrorHandler(
+                new DeadLetterPublishingRecoverer(template,
+                        (record, e) -> new TopicPartition(deadLetterTopic(record.topic()), -1)),
+                new FixedBackOff(1000L, 3L)
+        );
+    }
+
+    /**
+     * A dead-letter topic for every topic the listeners consume, since topics are not
+     * auto-created and a record that cannot be parked blocks its partition.
+     */
+    @Bean
+    public KafkaAdmin.NewTopics deadLetterTopics() {
+        return new KafkaAdmin.NewTopics(NotificationConsumer.TOPICS.stream()
+                .map(topic -> TopicBuilder.name(deadLetterTopic(topic))
+                        .partitions(1)
+                        .replicas(1)
+                        .build())
+                .toArray(NewTopic[]::new));
+    }
+}
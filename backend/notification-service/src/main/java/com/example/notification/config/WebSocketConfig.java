@@ -0,0 +1,32 @@
+package com.example.notification.config;
+
+import com.example.notification.channel.WebSocketChannel;
+import com.example.notification.security.JwtHandshakeInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final WebSocketChannel webSocketChannel;
+    private final JwtHandshakeInterceptor handshakeInterceptor;
+    private final String[] allowedOrigins;
+
+    public WebSocketConfig(WebSocketChannel webSocketChannel, JwtHandshakeInterceptor handshakeInterceptor,
+            @Value("${app.notification.websocket.allowed-origins:http://localhost:3000}") String[] allowedOrigins) {
+        this.webSocketChannel = webSocketChannel;
+        this.handshakeInterceptor = handshakeInterceptor;
+        this.allowedOrigins = allowedOrigins;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(webSocketChannel, "/ws/notifications")
+                .addInterceptors(handshakeInterceptor)
+                .setAllowedOrigins(allowedOrigins);
+    }
+}
@@ -2,47 +2,76 @@ package com.example.notification.consumer;
 
 import com.example.common.constants.KafkaConstants;
 import com.example.common.event.BaseEvent;
+import com.example.common.event.OrderCreatedEvent;
 import com.example.common.event.PaymentEvent;
+import com.example.notification.domain.OrderUpdate;
+import com.example.notification.service.DeliveryLog;
+import com.example.notification.service.EventReceipt;
+import com.example.notification.service.NotificationDigester;
+import com.example.notification.service.OrderCustomerIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class NotificationConsumer {
     private static final Logger log = LoggerFactory.getLogger(NotificationConsumer.class);
 
+    public static final String PAYMENT_LISTENER_ID = "notification-payments";
+    // Every topic listened to here, each of which gets a dead-letter topic
+    public static final List<String> TOPICS = List.of(
+            KafkaConstants.ORDER_EVENTS_TOPIC,
+            KafkaConstants.PAYMENT_EVENTS_TOPIC);
+
     private final ObjectMapper objectMapper;
+    private final NotificationDigester digester;
+    private final OrderCustomerIndex customers;
+    private final DeliveryLog deliveryLog;
 
-    public NotificationConsumer(ObjectMapper objectMapper) {
+    public NotificationConsumer(ObjectMapper objectMapper, NotificationDigester digester,
+            OrderCustomerIndex customers, DeliveryLog deliveryLog) {
         this.objectMapper = objectMapper;
+        this.digester = digester;
+        this.customers = customers;
+        this.deliveryLog = deliveryLog;
     }
 
-    @KafkaListener(topics = KafkaConstants.PAYMENT_EVENTS_TOPIC, groupId = "notification-service-group")
-    public void consumePaymentEvent(String message) {
-        log.info("Received payment event in notification: {}", message);
-        try {
-            BaseEvent<PaymentEvent> event = objectMapper.readValue(message, new TypeReference<>() {});
-            PaymentEvent payload = event.payload();
-
-            if (payload.status() == PaymentEvent.PaymentStatus.SUCCEEDED) {
-                sendEmail(payload.orderId(), "Order Successful", "Your order has been paid and is being processed.");
-            } else {
-                sendEmail(payload.orderId(), "Order Failed", "Payment for your order failed.");
-            }
-        } catch (Exception e) {
-            log.error("Error processing payment event in notification", e);
+    @KafkaListener(topics = KafkaConstants.ORDER_EVENTS_TOPIC, groupId = "notification-service-group")
+    public void consumeOrderEvent(String message, Acknowledgment ack) throws JsonProcessingException {
+        BaseEvent<OrderCreatedEvent> event = objectMapper.readValue(message, new TypeReference<>() {});
+        if (KafkaConstants.ORDER_CREATED_V1.equals(event.eventType())) {
+            customers.record(event.payload().orderId(), event.payload().customerId(),
+                    event.payload().customerEmail());
         }
+        ack.acknowledge();
     }
 
-    private void sendEmail(String orderId, String subject, String body) {
-        log.info("------------------------------------------------");
-        log.info("SENDING EMAIL (Mock)");
-        log.info("Order ID: {}", orderId);
-        log.info("Subject: {}", subject);
-        log.info("Body: {}", body);
-        log.info("------------------------------------------------");
+    /**
+     * Unreadable events are thrown back to the container's error handler, which retries and then
+     * moves them to the dead letter topic.
+     */
+    @KafkaListener(id = PAYMENT_LISTENER_ID, topics = KafkaConstants.PAYMENT_EVENTS_TOPIC, groupId = "notification-service-group")
+    public void consumePaymentEvent(String message, Acknowledgment ack)
+            throws JsonProcessingException {
+        log.info("Received payment event in notification: {}", message);
+        BaseEvent<PaymentEvent> event = objectMapper.readValue(message, new TypeReference<>() {});
+        PaymentEvent payload = event.payload();
+
+        if (!deliveryLog.begin(event.eventId())) {
+            log.info("Skipping duplicate payment event {} for order {}", event.eventId(), payload.orderId());
+            ack.acknowledge();
+            return;
+        }
+        OrderCustomerIndex.Customer customer = customers.customerOf(payload.orderId());
+        digester.add(new OrderUpdate(payload.orderId(), customer == null ? null : customer.id(),
+                customer == null ? null : customer.email(), payload.status()),
+                new EventReceipt(event.eventId(), payload.orderId(), message, ack));
     }
 }
@@ -0,0 +1,17 @@
+package com.example.notification.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+/**
+ * @param email where the email channel sends it, null when the customer's address is unknown;
+ *              left out of the JSON pushed to webhooks and sockets
+ */
+public record Notification(
+        String customerId,
+        @JsonIgnore String email,
+        List<String> orderIds,
+        String subject,
+        String body) {
+}
@@ -0,0 +1,17 @@
+package com.example.notification.domain;
+
+import com.example.common.event.PaymentEvent;
+
+public record OrderUpdate(
+        String orderId,
+        String customerId,
+        String customerEmail,
+        PaymentEvent.PaymentStatus status) {
+
+    /**
+     * Updates for the same customer share a digest; without a known customer the order stands alone.
+     */
+    public String digestKey() {
+        return customerId != null ? customerId : "order:" + orderId;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.notification.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Accepts a notification socket only with a valid JWT, and binds it to the token's subject so a
+ * client can never pick whose notifications it receives. Browsers cannot set headers on a
+ * WebSocket, so the token may also come as the {@code access_token} query parameter.
+ */
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String CUSTOMER_ID_ATTRIBUTE = "customerId";
+
+    private final JwtTokenProvider tokenProvider;
+
+    public JwtHandshakeInterceptor(JwtTokenProvider tokenProvider) {
+        this.tokenProvider = tokenProvider;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = token(request);
+        if (token == null || !tokenProvider.validateToken(token)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        String customerId = tokenProvider.getUsernameFromToken(token);
+        if (customerId == null || customerId.isBlank()) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        attributes.put(CUSTOMER_ID_ATTRIBUTE, customerId);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private static String token(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        return UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("access_token");
+    }
+}
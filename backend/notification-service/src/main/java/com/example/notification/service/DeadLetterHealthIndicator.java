@@ -0,0 +1,25 @@
+package com.example.notification.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the service down while events cannot be parked on the dead letter topic: their
+ * records stay unacknowledged, which holds back every later offset on their partitions.
+ */
+@Component
+public class DeadLetterHealthIndicator implements HealthIndicator {
+
+    private final NotificationDispatcher dispatcher;
+
+    public DeadLetterHealthIndicator(NotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public Health health() {
+        int failing = dispatcher.failingDeadLetters();
+        return (failing == 0 ? Health.up() : Health.down()).withDetail("failingDeadLetters", failing).build();
+    }
+}
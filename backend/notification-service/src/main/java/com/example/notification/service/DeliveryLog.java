@@ -0,0 +1,153 @@
+package com.example.notification.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records which events already produced a notification so redelivered events are not mailed twice.
+ *
+ * <p>Delivered event ids are appended to a file and fsynced before the Kafka record is
+ * acknowledged. The last {@code retention} ids are also kept in memory, and the file is compacted
+ * down to exactly those, so every id the log still knows about is answered from memory.
+ * An event sent but not yet logged when the process dies is sent again: delivery is at least once.
+ */
+@Service
+public class DeliveryLog {
+    private static final Logger log = LoggerFactory.getLogger(DeliveryLog.class);
+
+    private final Path path;
+    private final int retention;
+    private final Map<String, Boolean> delivered;
+    private final Set<String> inFlight = new HashSet<>();
+    private final Counter duplicates;
+    private FileChannel channel;
+    private int linesInFile;
+
+    public DeliveryLog(@Value("${app.notification.delivery-log.path:data/delivery.log}") String path,
+            @Value("${app.notification.delivery-log.retention:100000}") int retention,
+            MeterRegistry meterRegistry) {
+        this.path = Path.of(path);
+        this.retention = retention;
+        this.delivered = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > retention;
+            }
+        };
+        this.duplicates = meterRegistry.counter("notification.duplicates.suppressed");
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        if (Files.exists(path)) {
+            List<String> ids = Files.readAllLines(path, StandardCharsets.UTF_8);
+            for (String id : ids) {
+                if (!id.isBlank()) {
+                    delivered.put(id, Boolean.TRUE);
+                }
+            }
+            linesInFile = ids.size();
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        log.info("Loaded {} delivered event ids from {}", delivered.size(), path);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Claims an event for delivery. Returns false if it was already delivered or is queued right now.
+     */
+    public synchronized boolean begin(String eventId) {
+        if (eventId == null) {
+            return true;
+        }
+        if (delivered.containsKey(eventId) || !inFlight.add(eventId)) {
+            duplicates.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Makes the deliveries durable. Call before acknowledging the records.
+     */
+    public synchronized void markDelivered(Collection<String> eventIds) {
+        StringBuilder lines = new StringBuilder(eventIds.size() * 37);
+        for (String eventId : eventIds) {
+            if (eventId != null) {
+                inFlight.remove(eventId);
+                delivered.put(eventId, Boolean.TRUE);
+                lines.append(eventId).append('\n');
+                linesInFile++;
+            }
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            if (linesInFile > 2 * retention) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write delivery log " + path, e);
+        }
+    }
+
+    /**
+     * Gives up the claim on events that were not delivered, so a later redelivery is sent.
+     */
+    public synchronized void release(Collection<String> eventIds) {
+        inFlight.removeAll(eventIds);
+    }
+
+    private void compact() throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            StringBuilder lines = new StringBuilder(delivered.size() * 37);
+            delivered.keySet().forEach(id -> lines.append(id).append('\n'));
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(false);
+        }
+        channel.close();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        linesInFile = delivered.size();
+        log.info("Compacted delivery log to {} event ids", linesInFile);
+    }
+}
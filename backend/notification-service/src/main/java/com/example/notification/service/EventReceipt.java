@@ -0,0 +1,14 @@
+package com.example.notification.service;
+
+import org.springframework.kafka.support.Acknowledgment;
+
+/**
+ * The Kafka record a notification was built from: its event id for deduplication, the raw
+ * payload for the dead letter topic and the acknowledgment that commits it.
+ */
+public record EventReceipt(
+        String eventId,
+        String orderId,
+        String payload,
+        Acknowledgment ack) {
+}
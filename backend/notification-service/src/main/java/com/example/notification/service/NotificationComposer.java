@@ -0,0 +1,53 @@
+package com.example.notification.service;
+
+import com.example.common.event.PaymentEvent;
+import com.example.common.template.MessageTemplate;
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.OrderUpdate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns order updates into notification texts using templates compiled once at startup.
+ */
+@Service
+public class NotificationComposer {
+    private static final int DIGEST_LINE_ESTIMATE = 64;
+
+    private final MessageTemplate succeededTemplate = MessageTemplate.load("mail/order-succeeded.txt");
+    private final MessageTemplate failedTemplate = MessageTemplate.load("mail/order-failed.txt");
+    private final MessageTemplate digestTemplate = MessageTemplate.load("mail/order-digest.txt");
+    private final MessageTemplate digestLineTemplate = MessageTemplate.load("mail/order-digest-line.txt");
+
+    public Notification compose(OrderUpdate update) {
+        boolean succeeded = update.status() == PaymentEvent.PaymentStatus.SUCCEEDED;
+        MessageTemplate template = succeeded ? succeededTemplate : failedTemplate;
+        return new Notification(update.customerId(), update.customerEmail(), List.of(update.orderId()),
+                succeeded ? "Order Successful" : "Order Failed",
+                template.render(Map.of("orderId", update.orderId())));
+    }
+
+    /**
+     * One message covering several updates for the same customer.
+     */
+    public Notification composeDigest(List<OrderUpdate> updates) {
+        if (updates.size() == 1) {
+            return compose(updates.get(0));
+        }
+        StringBuilder lines = new StringBuilder(updates.size() * DIGEST_LINE_ESTIMATE);
+        for (OrderUpdate update : updates) {
+            digestLineTemplate.renderTo(lines, Map.of(
+                    "orderId", update.orderId(),
+                    "status", update.status() == PaymentEvent.PaymentStatus.SUCCEEDED
+                            ? "paid and being processed"
+                            : "payment failed"));
+        }
+        // A digest holds one customer's updates, so they share an address
+        return new Notification(updates.get(0).customerId(), updates.get(0).customerEmail(),
+                updates.stream().map(OrderUpdate::orderId).toList(),
+                "Updates on your " + updates.size() + " orders",
+                digestTemplate.render(Map.of("updates", lines)));
+    }
+}
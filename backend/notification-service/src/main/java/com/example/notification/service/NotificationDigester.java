@@ -0,0 +1,125 @@
+package com.example.notification.service;
+
+import com.example.notification.domain.OrderUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds order updates per customer for a short window and sends them as one digest, so a bulk
+ * run of orders produces one email per customer instead of one per order, addressed to that
+ * customer. The records stay unacknowledged until the digest has been sent.
+ *
+ * <p>Expired digests are flushed on the digester's own thread rather than the shared
+ * {@code @Scheduled} one, so handing them to the dispatcher never holds up other scheduled tasks.
+ */
+@Service
+public class NotificationDigester {
+    private static final Logger log = LoggerFactory.getLogger(NotificationDigester.class);
+
+    private final NotificationComposer composer;
+    private final NotificationDispatcher dispatcher;
+    private final long windowNanos;
+    private final int maxUpdates;
+    private final long flushIntervalMs;
+    private final Map<String, Digest> open = new HashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("notification-digest-flush").factory());
+
+    public NotificationDigester(NotificationComposer composer, NotificationDispatcher dispatcher,
+            @Value("${app.notification.digest.window-ms:5000}") long windowMs,
+            @Value("${app.notification.digest.max-updates:20}") int maxUpdates,
+            @Value("${app.notification.digest.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.composer = composer;
+        this.dispatcher = dispatcher;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxUpdates = maxUpdates;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (windowNanos > 0) {
+            flusher.scheduleWithFixedDelay(this::flushExpired, flushIntervalMs, flushIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Digests still open were never acknowledged, so Kafka redelivers them after restart
+        flusher.shutdownNow();
+    }
+
+    public void add(OrderUpdate update, EventReceipt receipt) {
+        if (windowNanos <= 0) {
+            dispatcher.dispatch(composer.compose(update), List.of(receipt));
+            return;
+        }
+        Digest full = null;
+        synchronized (open) {
+            Digest digest = open.computeIfAbsent(update.digestKey(), key -> new Digest(System.nanoTime()));
+            digest.updates.add(update);
+            digest.receipts.add(receipt);
+            if (digest.updates.size() >= maxUpdates) {
+                full = open.remove(update.digestKey());
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+    }
+
+    void flushExpired() {
+        List<Digest> expired = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (open) {
+            Iterator<Digest> it = open.values().iterator();
+            while (it.hasNext()) {
+                Digest digest = it.next();
+                if (now - digest.openedAt >= windowNanos) {
+                    expired.add(digest);
+                    it.remove();
+                }
+            }
+        }
+        for (Digest digest : expired) {
+            try {
+                send(digest);
+            } catch (RuntimeException e) {
+                // A scheduled executor stops repeating a task that throws
+                log.error("Failed to send digest for customer {}", digest.updates.get(0).customerId(), e);
+            }
+        }
+    }
+
+    private void send(Digest digest) {
+        if (digest.updates.size() > 1) {
+            log.info("Coalesced {} updates for customer {} into one notification",
+                    digest.updates.size(), digest.updates.get(0).customerId());
+        }
+        dispatcher.dispatch(composer.composeDigest(digest.updates), digest.receipts);
+    }
+
+    private static class Digest {
+        private final long openedAt;
+        private final List<OrderUpdate> updates = new ArrayList<>();
+        private final List<EventReceipt> receipts = new ArrayList<>();
+
+        Digest(long openedAt) {
+            this.openedAt = openedAt;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.notification.service;
+
+import com.example.notification.channel.ChannelLane;
+import com.example.notification.channel.NotificationChannel;
+import com.example.notification.config.KafkaReliabilityConfig;
+import com.example.notification.consumer.NotificationConsumer;
+import com.example.notification.domain.Notification;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans each notification out to every enabled channel's {@link ChannelLane}, off the Kafka
+ * listener thread. The records behind a notification are acknowledged once the required lanes
+ * are done with it and it has been recorded in the {@link DeliveryLog}, or after parking them on
+ * the dead letter topic when a required channel gave up.
+ *
+ * <p>Best-effort lanes finish on their own and never hold back the acknowledgement. A full
+ * required lane pauses the listener container; a full best-effort lane drops the notification
+ * for that channel instead, so a slow webhook never holds back emails or offset commits.
+ */
+@Service
+public class NotificationDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final DeliveryLog deliveryLog;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final List<ChannelLane> lanes;
+    private final List<ChannelLane> requiredLanes;
+    private final List<ChannelLane> bestEffortLanes;
+    private final long deadLetterBackoffMs;
+    private final long deadLetterMaxBackoffMs;
+    private final ScheduledExecutorService deadLetterRetries = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("notification-dead-letter-retry").factory());
+    // Events whose dead-lettering failed and is being retried; their offsets cannot commit yet
+    private final AtomicInteger failingDeadLetters = new AtomicInteger();
+
+    public NotificationDispatcher(DeliveryLog deliveryLog,
+            KafkaTemplate<String, String> kafkaTemplate,
+            KafkaListenerEndpointRegistry listenerRegistry,
+            MeterRegistry meterRegistry,
+            List<NotificationChannel> channels,
+            @Value("${app.notification.dead-letter.retry-backoff-ms:1000}") long deadLetterBackoffMs,
+            @Value("${app.notification.dead-letter.max-backoff-ms:60000}") long deadLetterMaxBackoffMs) {
+        this.deliveryLog = deliveryLog;
+        this.deadLetterBackoffMs = deadLetterBackoffMs;
+        this.deadLetterMaxBackoffMs = deadLetterMaxBackoffMs;
+        this.kafkaTemplate = kafkaTemplate;
+        this.listenerRegistry = listenerRegistry;
+        this.lanes = channels.stream()
+                .filter(channel -> channel.settings().enabled())
+                .map(channel -> new ChannelLane(channel, meterRegistry))
+                .toList();
+        this.requiredLanes = lanes.stream().filter(lane -> !lane.isBestEffort()).toList();
+        this.bestEffortLanes = lanes.stream().filter(ChannelLane::isBestEffort).toList();
+    }
+
+    @PostConstruct
+    public void start() {
+        lanes.forEach(ChannelLane::start);
+        log.info("Started notification channels {}", lanes.stream().map(ChannelLane::name).toList());
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Anything still queued was never acknowledged, so Kafka redelivers it after restart
+        lanes.forEach(ChannelLane::stop);
+        deadLetterRetries.shutdownNow();
+    }
+
+    /**
+     * How many events are stuck because the dead letter topic cannot be written; while any are,
+     * the partition's later offsets cannot be committed either.
+     */
+    public int failingDeadLetters() {
+        return failingDeadLetters.get();
+    }
+
+    /**
+     * Called on the listener thread and never blocks. When a required lane is full the
+     * notification waits in the lane's overflow and the container is paused, so the consumer
+     * keeps polling within {@code max.poll.interval.ms} without fetching more records.
+     */
+    public void dispatch(Notification notification, List<EventReceipt> receipts) {
+        for (ChannelLane lane : bestEffortLanes) {
+            if (!lane.offer(notification, sent -> { })) {
+                lane.recordDropped();
+                log.warn("{} lane full, dropping notification for orders {}", lane.name(), notification.orderIds());
+            }
+        }
+        PendingNotification pending = new PendingNotification(notification, receipts, requiredLanes.size());
+        if (requiredLanes.isEmpty()) {
+            complete(pending);
+            return;
+        }
+        for (ChannelLane lane : requiredLanes) {
+            if (!lane.offer(notification, sent -> onLaneDone(pending, sent))) {
+                pauseListener(lane);
+                lane.enqueue(notification, sent -> onLaneDone(pending, sent));
+            }
+        }
+    }
+
+    private void onLaneDone(PendingNotification pending, boolean sent) {
+        if (!sent) {
+            pending.requiredFailed().set(true);
+        }
+        resumeListenerIfDrained();
+        if (pending.remaining().decrementAndGet() == 0) {
+            complete(pending);
+        }
+    }
+
+    private void complete(PendingNotification pending) {
+        if (pending.requiredFailed().get()) {
+            deadLetter(pending);
+            return;
+        }
+        try {
+            deliveryLog.markDelivered(pending.eventIds());
+        } catch (RuntimeException e) {
+            // The notification is out; without the log entry a redelivery may send it once more
+            log.error("Failed to record delivery for orders {}", pending.notification().orderIds(), e);
+        }
+        pending.receipts().forEach(receipt -> receipt.ack().acknowledge());
+    }
+
+    /**
+     * Parks the source events on the dead letter topic so one poison notification cannot hold back
+     * the partition's offsets. A failed publish is retried with growing backoff until it goes
+     * through, and reported by {@link #failingDeadLetters()} meanwhile, since every later offset
+     * on the partition waits for it.
+     */
+    private void deadLetter(PendingNotification pending) {
+        deliveryLog.release(pending.eventIds());
+        pending.receipts().forEach(receipt -> publishDeadLetter(receipt, 1));
+    }
+
+    private void publishDeadLetter(EventReceipt receipt, int attempt) {
+        CompletableFuture<?> send;
+        try {
+            send = kafkaTemplate.send(KafkaReliabilityConfig.PAYMENT_EVENTS_DLT, receipt.orderId(), receipt.payload());
+        } catch (RuntimeException e) {
+            send = CompletableFuture.failedFuture(e);
+        }
+        send.whenComplete((result, e) -> {
+            if (e == null) {
+                if (attempt > 1) {
+                    failingDeadLetters.decrementAndGet();
+                    log.info("Dead-lettered event {} for order {} after {} attempts", receipt.eventId(),
+                            receipt.orderId(), attempt);
+                }
+                receipt.ack().acknowledge();
+                return;
+            }
+            if (attempt == 1) {
+                failingDeadLetters.incrementAndGet();
+            }
+            long backoffMs = Math.min(deadLetterBackoffMs << Math.min(attempt - 1, 20), deadLetterMaxBackoffMs);
+            log.error("Failed to dead-letter event {} for order {} (attempt {}), retrying in {} ms",
+                    receipt.eventId(), receipt.orderId(), attempt, backoffMs, e);
+            try {
+                deadLetterRetries.schedule(() -> publishDeadLetter(receipt, attempt + 1), backoffMs,
+                        TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shuttingDown) {
+                // Unacknowledged, so the event comes back after the restart
+            }
+        });
+    }
+
+    private void pauseListener(ChannelLane lane) {
+        MessageListenerContainer container = listenerRegistry
+                .getListenerContainer(NotificationConsumer.PAYMENT_LISTENER_ID);
+        if (container != null && !container.isPauseRequested()) {
+            container.pause();
+            log.warn("{} lane full, pausing payment event listener", lane.name());
+        }
+    }
+
+    private void resumeListenerIfDrained() {
+        MessageListenerContainer container = listenerRegistry
+                .getListenerContainer(NotificationConsumer.PAYMENT_LISTENER_ID);
+        if (container == null || !container.isPauseRequested()) {
+            return;
+        }
+        boolean drained = requiredLanes.stream().allMatch(ChannelLane::isBelowHalf);
+        if (drained) {
+            container.resume();
+            log.info("Notification lanes drained, resuming payment event listener");
+        }
+    }
+
+    private record PendingNotification(Notification notification, List<EventReceipt> receipts,
+            AtomicInteger remaining, AtomicBoolean requiredFailed) {
+
+        PendingNotification(Notification notification, List<EventReceipt> receipts, int lanes) {
+            this(notification, receipts, new AtomicInteger(lanes), new AtomicBoolean());
+        }
+
+        List<String> eventIds() {
+            return receipts.stream().map(EventReceipt::eventId).toList();
+        }
+    }
+}
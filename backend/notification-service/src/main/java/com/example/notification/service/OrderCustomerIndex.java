@@ -0,0 +1,153 @@
+package com.example.notification.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers which customer placed recent orders and where to email them, learnt from order
+ * events, since payment events only carry the order id. Least recently used orders are forgotten
+ * past the capacity.
+ *
+ * <p>Like the {@link DeliveryLog}, every order is appended to a file and fsynced before its
+ * record is acknowledged, and the file is compacted down to the orders still remembered, so a
+ * restart picks up where it left off. Payments for orders it does not know are counted as
+ * {@code notification.customers.unknown}; their notifications go to the fallback mailbox.
+ */
+@Service
+public class OrderCustomerIndex {
+    private static final Logger log = LoggerFactory.getLogger(OrderCustomerIndex.class);
+
+    private final Path path;
+    private final int capacity;
+    private final Map<String, Customer> customerByOrder;
+    private final Counter unknown;
+    private FileChannel channel;
+    private int linesInFile;
+
+    public OrderCustomerIndex(@Value("${app.notification.customers.path:data/order-customers.log}") String path,
+            @Value("${app.notification.customers.capacity:100000}") int capacity,
+            MeterRegistry meterRegistry) {
+        this.path = Path.of(path);
+        this.capacity = capacity;
+        this.customerByOrder = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Customer> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.unknown = meterRegistry.counter("notification.customers.unknown");
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        if (Files.exists(path)) {
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length == 3) {
+                    customerByOrder.put(fields[0], new Customer(emptyToNull(fields[1]), emptyToNull(fields[2])));
+                }
+            }
+            linesInFile = lines.size();
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        log.info("Loaded {} order customers from {}", customerByOrder.size(), path);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Remembers the order's customer durably. Call before acknowledging the order record.
+     */
+    public synchronized void record(String orderId, String customerId, String email) {
+        Customer customer = new Customer(customerId, email);
+        customerByOrder.put(orderId, customer);
+        try {
+            write(channel, line(orderId, customer));
+            channel.force(false);
+            if (++linesInFile > 2 * capacity) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write order customers " + path, e);
+        }
+    }
+
+    /**
+     * @return the order's customer, or null when the order event was never seen or is forgotten
+     */
+    public synchronized Customer customerOf(String orderId) {
+        Customer customer = customerByOrder.get(orderId);
+        if (customer == null) {
+            unknown.increment();
+        }
+        return customer;
+    }
+
+    private void compact() throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            StringBuilder lines = new StringBuilder(customerByOrder.size() * 96);
+            customerByOrder.forEach((orderId, customer) -> lines.append(line(orderId, customer)));
+            write(out, lines.toString());
+            out.force(false);
+        }
+        channel.close();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        linesInFile = customerByOrder.size();
+        log.info("Compacted order customers to {} orders", linesInFile);
+    }
+
+    private static String line(String orderId, Customer customer) {
+        return orderId + '\t' + nullToEmpty(customer.id()) + '\t' + nullToEmpty(customer.email()) + '\n';
+    }
+
+    private static void write(FileChannel out, String text) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * @param email null when the order was placed without one on the customer's token
+     */
+    public record Customer(String id, String email) {
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.notification.channel;
+
+import com.example.notification.domain.Notification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ChannelLaneTest {
+
+        private HttpServer webhookReceiver;
+        private final List<String> webhookBodies = new CopyOnWriteArrayList<>();
+        private final AtomicInteger webhookCalls = new AtomicInteger();
+        private volatile int failFirstCalls;
+        private volatile long responseDelayMs;
+        private SimpleMeterRegistry meterRegistry;
+
+        @BeforeEach
+        void setUp() throws IOException {
+                meterRegistry = new SimpleMeterRegistry();
+                webhookReceiver = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+                webhookReceiver.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+                webhookReceiver.createContext("/hook", exchange -> {
+                        int call = webhookCalls.incrementAndGet();
+                        webhookBodies.add(new String(exchange.getRequestBody().readAllBytes()));
+                        try {
+                                Thread.sleep(responseDelayMs);
+                        } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                        }
+                        exchange.sendResponseHeaders(call <= failFirstCalls ? 500 : 204, -1);
+                        exchange.close();
+                });
+                webhookReceiver.start();
+        }
+
+        @AfterEach
+        void tearDown() {
+                webhookReceiver.stop(0);
+        }
+
+        @Test
+        void slowWebhookShouldNotDelayEmail() throws Exception {
+                responseDelayMs = 2000;
+                CountDownLatch emailsSent = new CountDownLatch(5);
+                ChannelLane email = new ChannelLane(stubChannel("email", emailsSent), meterRegistry);
+                ChannelLane webhook = new ChannelLane(webhookChannel(1, 1), meterRegistry);
+                email.start();
+                webhook.start();
+
+                AtomicInteger webhookDone = new AtomicInteger();
+                for (int i = 0; i < 5; i++) {
+                        Notification notification = notification("order-" + i);
+                        webhook.offer(notification, sent -> webhookDone.incrementAndGet());
+                        email.offer(notification, sent -> { });
+                }
+
+                assertThat(emailsSent.await(1, TimeUnit.SECONDS)).isTrue();
+                assertThat(webhookDone.get()).isZero();
+                assertThat(meterRegistry.get("notification.channel.queue.depth").tag("channel", "webhook")
+                                .gauge().value()).isGreaterThan(0);
+                email.stop();
+                webhook.stop();
+        }
+
+        @Test
+        void webhookShouldRetryUntilAccepted() throws Exception {
+                failFirstCalls = 1;
+                ChannelLane webhook = new ChannelLane(webhookChannel(1, 3), meterRegistry);
+                webhook.start();
+
+                CountDownLatch done = new CountDownLatch(1);
+                AtomicInteger outcome = new AtomicInteger();
+                webhook.offer(notification("order-1"), sent -> {
+                        outcome.set(sent ? 1 : -1);
+                        done.countDown();
+                });
+
+                assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+                assertThat(outcome.get()).isEqualTo(1);
+                assertThat(webhookCalls.get()).isEqualTo(2);
+                assertThat(webhookBodies.get(1)).contains("\"orderIds\":[\"order-1\"]");
+                assertThat(meterRegistry.get("notification.channel.send").tag("channel", "webhook")
+                                .timer().count()).isEqualTo(1);
+                webhook.stop();
+        }
+
+        @Test
+        void enqueueShouldHoldTasksPastCapacityWithoutBlocking() throws Exception {
+                CountDownLatch release = new CountDownLatch(1);
+                ChannelSettings settings = new ChannelSettings(true, 1, 2, 0, 1, 0, false);
+                ChannelLane lane = new ChannelLane(new NotificationChannel() {
+                        @Override
+                        public String name() {
+                                return "blocked";
+                        }
+
+                        @Override
+                        public ChannelSettings settings() {
+                                return settings;
+                        }
+
+                        @Override
+                        public void send(Notification notification) throws InterruptedException {
+                                release.await();
+                        }
+                }, meterRegistry);
+                lane.start();
+
+                CountDownLatch done = new CountDownLatch(6);
+                for (int i = 0; i < 6; i++) {
+                        lane.enqueue(notification("order-" + i), ok -> done.countDown());
+                }
+                assertThat(lane.offer(notification("order-6"), ok -> { })).isFalse();
+                assertThat(lane.isBelowHalf()).isFalse();
+
+                release.countDown();
+                assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+                lane.stop();
+        }
+
+        private WebhookChannel webhookChannel(int workers, int maxAttempts) {
+                String url = "http://localhost:" + webhookReceiver.getAddress().getPort() + "/hook";
+                return new WebhookChannel(new ObjectMapper(), url, 5000, workers, 100, 0, maxAttempts, 10);
+        }
+
+        private NotificationChannel stubChannel(String name, CountDownLatch sent) {
+                ChannelSettings settings = new ChannelSettings(true, 2, 100, 0, 1, 0, false);
+                return new NotificationChannel() {
+                        @Override
+                        public String name() {
+                                return name;
+                        }
+
+                        @Override
+                        public ChannelSettings settings() {
+                                return settings;
+                        }
+
+                        @Override
+                        public void send(Notification notification) {
+                                sent.countDown();
+                        }
+                };
+        }
+
+        private Notification notification(String orderId) {
+                return new Notification("customer-1", null, List.of(orderId), "Order Successful", "Paid");
+        }
+}
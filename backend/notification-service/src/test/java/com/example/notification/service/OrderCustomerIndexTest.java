@@ -0,0 +1,55 @@
+package com.example.notification.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrderCustomerIndexTest {
+
+        @TempDir
+        Path dir;
+
+        @Test
+        void remembersCustomersAcrossRestarts() throws IOException {
+                OrderCustomerIndex index = open(10, new SimpleMeterRegistry());
+                index.record("o1", "c1", "c1@example.com");
+                index.record("o2", "c2", null);
+                index.close();
+
+                OrderCustomerIndex restarted = open(10, new SimpleMeterRegistry());
+                assertThat(restarted.customerOf("o1"))
+                                .isEqualTo(new OrderCustomerIndex.Customer("c1", "c1@example.com"));
+                assertThat(restarted.customerOf("o2")).isEqualTo(new OrderCustomerIndex.Customer("c2", null));
+                restarted.close();
+        }
+
+        @Test
+        void compactsToTheRememberedOrdersAndCountsUnknownOnes() throws IOException {
+                OrderCustomerIndex index = open(2, new SimpleMeterRegistry());
+                for (int i = 0; i < 5; i++) {
+                        index.record("o" + i, "c" + i, null);
+                }
+                index.close();
+
+                assertThat(Files.readAllLines(dir.resolve("customers.log"))).hasSize(2);
+                SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+                OrderCustomerIndex restarted = open(2, meterRegistry);
+                assertThat(restarted.customerOf("o4")).isNotNull();
+                assertThat(restarted.customerOf("o0")).isNull();
+                restarted.close();
+                assertThat(meterRegistry.counter("notification.customers.unknown").count()).isEqualTo(1);
+        }
+
+        private OrderCustomerIndex open(int capacity, SimpleMeterRegistry meterRegistry) throws IOException {
+                OrderCustomerIndex index = new OrderCustomerIndex(dir.resolve("customers.log").toString(), capacity,
+                                meterRegistry);
+                index.open();
+                return index;
+        }
+}
@@ -2,6 +2,7 @@ package com.example.order.controller;
 
 import com.example.order.dto.CreateOrderRequest;
 import com.example.order.dto.OrderResponse;
+import com.example.order.security.JwtAuthenticationFilter;
 import com.example.order.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -25,10 +26,11 @@ public class OrderController {
     @PostMapping
     @PreAuthorize("hasAnyAuthority('ROLE_USER', 'ROLE_ADMIN', 'ROLE_MANAGER')")
     public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody CreateOrderRequest request,
-            Principal principal) {
+            Principal principal,
+            @RequestAttribute(name = JwtAuthenticationFilter.EMAIL_ATTRIBUTE, required = false) String customerEmail) {
         // Log the authenticated user
         System.out.println("Order created by user: " + principal.getName());
-        OrderResponse response = orderService.createOrder(request);
+        OrderResponse response = orderService.createOrder(request, customerEmail);
         return ResponseEntity.ok(response);
     }
 
@@ -18,6 +18,11 @@ import java.util.stream.Collectors;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    /**
+     * Request attribute holding the authenticated user's email from the token, when it has one.
+     */
+    public static final String EMAIL_ATTRIBUTE = "com.example.order.security.email";
+
     private final JwtTokenProvider tokenProvider;
 
     public JwtAuthenticationFilter(JwtTokenProvider tokenProvider) {
@@ -40,6 +45,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         .parseSignedClaims(jwt)
                         .getPayload();
 
+                String email = claims.get("email", String.class);
+                if (StringUtils.hasText(email)) {
+                    request.setAttribute(EMAIL_ATTRIBUTE, email);
+                }
+
                 String rolesString = claims.get("roles", String.class);
                 if (StringUtils.hasText(rolesString)) {
                     List<SimpleGrantedAuthority> authorities = Arrays.stream(rolesString.split(","))
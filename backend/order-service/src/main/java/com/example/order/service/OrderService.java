@@ -36,8 +36,11 @@ public class OrderService {
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * @param customerEmail where the customer's notifications go, from their token; may be null
+     */
     @Transactional
-    public OrderResponse createOrder(CreateOrderRequest request) {
+    public OrderResponse createOrder(CreateOrderRequest request, String customerEmail) {
         String correlationId = CorrelationIdUtils.getCorrelationId();
         log.info("Creating order for customer: {}", request.getCustomerId());
 
@@ -70,7 +73,8 @@ public class OrderService {
                 order.getItems().stream()
                         .map(i -> new OrderCreatedEvent.OrderItemPayload(i.getProductId(), i.getProductName(),
                                 i.getUnitPrice(), i.getQuantity()))
-                        .collect(Collectors.toList()));
+                        .collect(Collectors.toList()),
+                customerEmail);
 
         BaseEvent<OrderCreatedEvent> event = BaseEvent.create(
                 KafkaConstants.ORDER_CREATED_V1,
@@ -0,0 +1,19 @@
+package com.example.product.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import com.example.common.constants.KafkaConstants;
+
+@Configuration
+public class KafkaConfig {
+
+    @Bean
+    public NewTopic wishlistEventsTopic() {
+        return TopicBuilder.name(KafkaConstants.WISHLIST_EVENTS_TOPIC)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.product.consumer;
+
+import com.example.common.constants.KafkaConstants;
+import com.example.common.event.BaseEvent;
+import com.example.product.service.CategoryService;
+import com.example.product.service.ProductService;
+import com.example.product.service.WishlistIndex;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps this replica's catalog cache, search index and wishlist index in step with product,
+ * category and wishlist changes made by any replica. Every replica joins a consumer group of its
+ * own, named after its {@code instance-id} (the host name) so that a restart rejoins the same
+ * group instead of leaving an orphan behind, and so sees every product and wishlist event.
+ * Whatever it held before a reassignment may have missed events, so the caches are dropped and
+ * the search index rebuilt off the listener thread. The first assignment is skipped: the caches
+ * start empty and the index is built once the application is ready.
+ */
+@Component
+public class ProductEventsConsumer implements ConsumerSeekAware {
+    private static final Logger log = LoggerFactory.getLogger(ProductEventsConsumer.class);
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final WishlistIndex wishlistIndex;
+    private final ObjectMapper objectMapper;
+    private final AtomicBoolean assigned = new AtomicBoolean();
+
+    public ProductEventsConsumer(ProductService productService, CategoryService categoryService,
+            WishlistIndex wishlistIndex, ObjectMapper objectMapper) {
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.wishlistIndex = wishlistIndex;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(id = "product-catalog-events",
+            topics = { KafkaConstants.PRODUCT_EVENTS_TOPIC, KafkaConstants.WISHLIST_EVENTS_TOPIC },
+            groupId = "product-catalog-${app.product.cache.instance-id:${HOSTNAME:local}}",
+            properties = "auto.offset.reset=latest")
+    public void consumeProductEvent(String message, Acknowledgment ack) {
+        try {
+            BaseEvent<ProductPayload> event = objectMapper.readValue(message, new TypeReference<>() {
+            });
+            ProductPayload payload = event.payload();
+            if (payload == null) {
+                return;
+            }
+            String eventType = event.eventType();
+            if (KafkaConstants.CATEGORY_CHANGED_V1.equals(eventType) && payload.categoryId() != null) {
+                categoryService.onCategoryChanged(payload.categoryId());
+            } else if (payload.productId() == null) {
+                return;
+            } else if (KafkaConstants.WISHLIST_CHANGED_V1.equals(eventType) && payload.userId() != null) {
+                if (Boolean.TRUE.equals(payload.watching())) {
+                    wishlistIndex.added(payload.productId(), payload.userId());
+                } else {
+                    wishlistIndex.removed(payload.productId(), payload.userId());
+                }
+            } else if (KafkaConstants.PRODUCT_UPDATED_V1.equals(eventType)) {
+                productService.onProductChanged(payload.productId(), false);
+            } else if (KafkaConstants.PRODUCT_CREATED_V1.equals(eventType)
+                    || KafkaConstants.PRODUCT_DELETED_V1.equals(eventType)) {
+                productService.onProductChanged(payload.productId(), true);
+            }
+        } catch (Exception e) {
+            log.error("Error processing product event for the catalog: {}", message, e);
+        } finally {
+            ack.acknowledge();
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (assignments.isEmpty() || !assigned.getAndSet(true)) {
+            return;
+        }
+        productService.onCatalogReset();
+        wishlistIndex.invalidateAll();
+    }
+
+    public record ProductPayload(String productId, Long categoryId, String userId, Boolean watching) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.product.consumer;
+
+import com.example.common.constants.KafkaConstants;
+import com.example.common.event.BaseEvent;
+import com.example.common.event.StockRestockedEvent;
+import com.example.product.service.WishlistAlertService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records back-in-stock alerts when inventory-service reports that a product's live stock came
+ * back. All replicas share one consumer group, so each restock is alerted once. A record is only
+ * acknowledged once its alerts are in the outbox; a failure leaves it to the container to retry.
+ */
+@Component
+public class StockEventsConsumer {
+    private static final Logger log = LoggerFactory.getLogger(StockEventsConsumer.class);
+
+    private final WishlistAlertService alertService;
+    private final ObjectMapper objectMapper;
+
+    public StockEventsConsumer(WishlistAlertService alertService, ObjectMapper objectMapper) {
+        this.alertService = alertService;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(topics = KafkaConstants.STOCK_EVENTS_TOPIC, groupId = "product-restock-alerts")
+    public void consumeStockEvent(String message, Acknowledgment ack) {
+        BaseEvent<StockRestockedEvent> event;
+        try {
+            event = objectMapper.readValue(message, new TypeReference<>() {
+            });
+        } catch (JsonProcessingException e) {
+            log.error("Skipping unreadable stock event: {}", message, e);
+            ack.acknowledge();
+            return;
+        }
+        if (KafkaConstants.STOCK_RESTOCKED_V1.equals(event.eventType()) && event.payload() != null
+                && event.payload().productId() != null) {
+            alertService.recordRestock(event.payload().productId(), event.payload().availableQuantity());
+        }
+        ack.acknowledge();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.product.consumer;
+
+import com.example.common.constants.KafkaConstants;
+import com.example.common.event.BaseEvent;
+import com.example.product.service.WishlistSnapshotRefresher;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Queues wishlist snapshot refreshes for updated products. Unlike the catalog listener, all
+ * replicas share one consumer group, so each update refreshes the wishlists once. Every record is
+ * handed to the refresher with its ack, which it acknowledges after writing the snapshots.
+ */
+@Component
+public class WishlistSnapshotConsumer {
+    private static final Logger log = LoggerFactory.getLogger(WishlistSnapshotConsumer.class);
+
+    private final WishlistSnapshotRefresher refresher;
+    private final ObjectMapper objectMapper;
+
+    public WishlistSnapshotConsumer(WishlistSnapshotRefresher refresher, ObjectMapper objectMapper) {
+        this.refresher = refresher;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(topics = KafkaConstants.PRODUCT_EVENTS_TOPIC, groupId = "product-wishlist-snapshots")
+    public void consumeProductEvent(String message,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            Acknowledgment ack) {
+        String productId = null;
+        try {
+            BaseEvent<ProductEventsConsumer.ProductPayload> event = objectMapper.readValue(message,
+                    new TypeReference<>() {
+                    });
+            if (KafkaConstants.PRODUCT_UPDATED_V1.equals(event.eventType()) && event.payload() != null
+                    && event.payload().productId() != null) {
+                productId = event.payload().productId();
+            }
+        } catch (Exception e) {
+            log.error("Error processing product event for wishlists: {}", message, e);
+        }
+        refresher.productUpdated(productId, new TopicPartition(topic, partition), ack);
+    }
+}
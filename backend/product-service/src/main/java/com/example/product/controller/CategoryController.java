@@ -1,31 +1,47 @@
 package com.example.product.controller;
 
 import com.example.product.domain.Category;
+import com.example.product.dto.CategoryNavigation;
 import com.example.product.dto.CategoryRequest;
+import com.example.product.service.CatalogVersion;
 import com.example.product.service.CategoryService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/categories")
 public class CategoryController {
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
     private final CategoryService categoryService;
+    private final CatalogVersion catalogVersion;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CatalogVersion catalogVersion) {
         this.categoryService = categoryService;
+        this.catalogVersion = catalogVersion;
     }
 
     @GetMapping
-    public List<Category> getAllCategories() {
-        return categoryService.getAllCategories();
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest request) {
+        return ConditionalResponses.ofVersion(request, catalogVersion.etag(), REVALIDATE,
+                categoryService::getAllCategories);
+    }
+
+    @GetMapping("/navigation")
+    public ResponseEntity<CategoryNavigation> getNavigation(WebRequest request) {
+        return ConditionalResponses.ofVersion(request, catalogVersion.etag(), REVALIDATE,
+                categoryService::getNavigation);
     }
 
     @GetMapping("/{id}")
-    public Category getCategory(@PathVariable Long id) {
-        return categoryService.getCategoryById(id);
+    public ResponseEntity<Category> getCategory(@PathVariable Long id, WebRequest request) {
+        return ConditionalResponses.ofVersion(request, catalogVersion.etag(), REVALIDATE,
+                () -> categoryService.getCategoryById(id));
     }
 
     @PostMapping
@@ -0,0 +1,26 @@
+package com.example.product.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Answers 304 when the client already holds {@code etag}, without building the body;
+     * otherwise the body with the tag. Both carry {@code cacheControl}.
+     */
+    static <T> ResponseEntity<T> ofVersion(WebRequest request, String etag, CacheControl cacheControl,
+            Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+}
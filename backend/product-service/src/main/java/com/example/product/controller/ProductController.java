@@ -1,44 +1,122 @@
 package com.example.product.controller;
 
-import com.example.product.domain.Product;
+import com.example.product.dto.ProductImportReport;
+import com.example.product.dto.ProductPage;
 import com.example.product.dto.ProductRequest;
+import com.example.product.dto.ProductView;
+import com.example.product.service.CatalogVersion;
 import com.example.product.service.ProductService;
+import com.example.product.service.ProductTransferService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
+    // Entity endpoints revalidate on every use, which costs a 304 while nothing changed
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+    // Listing and search pages may be reused briefly without asking
+    private static final CacheControl BROWSE = CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic();
+
     private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final ProductTransferService transferService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, CatalogVersion catalogVersion,
+            ProductTransferService transferService) {
         this.productService = productService;
+        this.catalogVersion = catalogVersion;
+        this.transferService = transferService;
     }
 
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<List<ProductView>> getAllProducts(WebRequest request) {
+        return ConditionalResponses.ofVersion(request, catalogVersion.etag(), REVALIDATE,
+                productService::getAllProducts);
+    }
+
+    @GetMapping("/listing")
+    public ResponseEntity<ProductPage> listProducts(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "24") int size,
+            WebRequest request) {
+        return ConditionalResponses.ofVersion(request, catalogVersion.etag(), BROWSE,
+                () -> productService.listProducts(after, categoryId, minPrice, maxPrice, size));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductView>> searchProducts(@RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit,
+            WebRequest request) {
+        return ConditionalResponses.ofVersion(request, catalogVersion.etag(), BROWSE,
+                () -> productService.searchProducts(q, limit));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public void exportProducts(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response)
+            throws IOException {
+        ProductTransferService.Format exportFormat;
+        try {
+            exportFormat = ProductTransferService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format: " + format);
+        }
+        boolean csv = exportFormat == ProductTransferService.Format.CSV;
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"products." + (csv ? "csv" : "ndjson") + "\"");
+        transferService.exportProducts(exportFormat, response.getWriter());
     }
 
     @GetMapping("/{id}")
-    public Product getProduct(@PathVariable String id) {
-        return productService.getProductById(id);
+    public ResponseEntity<ProductView> getProduct(@PathVariable String id, WebRequest request) {
+        return ConditionalResponses.ofVersion(request, catalogVersion.etag(), REVALIDATE,
+                () -> productService.getProductById(id));
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public Product createProduct(
+    public ProductView createProduct(
             @Valid @RequestPart("product") ProductRequest request,
             @RequestPart(value = "files", required = false) MultipartFile[] files) {
         return productService.createProduct(request, files);
     }
 
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ProductImportReport importCsv(InputStream body) {
+        return transferService.importProducts(body, ProductTransferService.Format.CSV);
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ProductImportReport importNdjson(InputStream body) {
+        return transferService.importProducts(body, ProductTransferService.Format.NDJSON);
+    }
+
     @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public Product updateProduct(
+    public ProductView updateProduct(
             @PathVariable String id,
             @Valid @RequestPart("product") ProductRequest request,
             @RequestPart(value = "files", required = false) MultipartFile[] files) {
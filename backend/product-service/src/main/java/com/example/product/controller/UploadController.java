@@ -0,0 +1,30 @@
+package com.example.product.controller;
+
+import com.example.common.web.UploadServer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Serves product images. {@code ?w=<width>} picks the nearest generated variant of the image,
+ * falling back to the original while variants are pending or when there are none.
+ */
+@RestController
+public class UploadController {
+    private final UploadServer uploads;
+
+    public UploadController(UploadServer uploads) {
+        this.uploads = uploads;
+    }
+
+    @GetMapping("/uploads/{name}")
+    public void getUpload(@PathVariable String name, @RequestParam(required = false) Integer w,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        uploads.serve(name, w, request, response);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.product.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox", indexes = {
+        // The relay reads unsent events in id order
+        @Index(name = "idx_outbox_sent_id", columnList = "sent, id")
+})
+public class Outbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    // Null for rows recorded before events went anywhere but the product events topic
+    private String topic;
+    private String aggregateId;
+    private String eventType;
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+    private LocalDateTime createdAt;
+    private boolean sent;
+
+    public Outbox() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+    public String getAggregateId() { return aggregateId; }
+    public void setAggregateId(String aggregateId) { this.aggregateId = aggregateId; }
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public boolean isSent() { return sent; }
+    public void setSent(boolean sent) { this.sent = sent; }
+}
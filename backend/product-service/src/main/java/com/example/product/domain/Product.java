@@ -13,7 +13,11 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Keyset pagination of the listing, unfiltered and per category
+        @Index(name = "idx_products_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_products_category_created_id", columnList = "category_id, created_at, id")
+})
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Product {
     @Id
@@ -35,7 +39,8 @@ public class Product {
     private Integer initialInventory;
 
     @ElementCollection
-    @CollectionTable(name = "product_images", joinColumns = @JoinColumn(name = "product_id"))
+    @CollectionTable(name = "product_images", joinColumns = @JoinColumn(name = "product_id"),
+            indexes = @Index(name = "idx_product_images_product_id", columnList = "product_id"))
     @Column(name = "image_url")
     private List<String> images = new ArrayList<>();
 
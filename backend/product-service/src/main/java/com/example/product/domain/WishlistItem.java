@@ -6,7 +6,13 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "wishlist_items")
+@Table(name = "wishlist_items", uniqueConstraints = {
+        // A product is on a wishlist at most once, so items are upserted without loading the list
+        @UniqueConstraint(name = "uk_wishlist_items_wishlist_product", columnNames = { "wishlist_id", "product_id" })
+}, indexes = {
+        // Snapshot refreshes look items up by product
+        @Index(name = "idx_wishlist_items_product_id", columnList = "product_id")
+})
 public class WishlistItem {
 
     @Id
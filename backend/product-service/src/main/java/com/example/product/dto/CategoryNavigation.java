@@ -0,0 +1,17 @@
+package com.example.product.dto;
+
+import java.util.List;
+
+/**
+ * The storefront's category navigation: every category, sorted by name, with how many products
+ * it holds.
+ *
+ * @param totalProducts products in the catalog, including those without a category
+ */
+public record CategoryNavigation(
+        long totalProducts,
+        List<CategoryNode> categories) {
+
+    public record CategoryNode(Long id, String name, String description, long productCount) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.product.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the listing order (createdAt, id), handed to clients as an opaque string.
+ */
+public record ProductCursor(LocalDateTime createdAt, String id) {
+
+    public static ProductCursor after(ProductListItem item) {
+        return new ProductCursor(item.createdAt(), item.id());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid product cursor: " + cursor);
+            }
+            return new ProductCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid product cursor: " + cursor, e);
+        }
+    }
+}
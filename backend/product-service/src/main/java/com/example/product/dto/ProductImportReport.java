@@ -0,0 +1,20 @@
+package com.example.product.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a catalog import. Only the first errors are listed; {@code failed} counts them all.
+ */
+public record ProductImportReport(
+        long processed,
+        long created,
+        long updated,
+        long failed,
+        List<RowError> errors) {
+
+    /**
+     * @param line line of the input the row starts on
+     */
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.product.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One product in a catalog import or export. Rows with an id update that product, or create it
+ * under that id; rows without one create a new product. As in an update through the API, a
+ * missing category or image list leaves the stored one unchanged.
+ */
+public record ProductImportRow(
+    @Size(max = 255, message = "Product id is too long")
+    String id,
+    @NotBlank(message = "Product name is required")
+    @Size(max = 255, message = "Product name is too long")
+    String name,
+    String description,
+    @NotNull(message = "Price is required")
+    @PositiveOrZero(message = "Price must be positive or zero")
+    BigDecimal price,
+    @NotNull(message = "Inventory quantity is required")
+    @PositiveOrZero(message = "Inventory must be positive or zero")
+    Integer inventory,
+    Long categoryId,
+    List<String> images
+) {
+    public ProductImportRow withId(String id) {
+        return new ProductImportRow(id, name, description, price, inventory, categoryId, images);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.product.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One row of the catalog listing: what a product grid shows, without the description.
+ */
+public record ProductListItem(
+        String id,
+        String name,
+        BigDecimal price,
+        Integer inventory,
+        List<String> images,
+        Long categoryId,
+        String categoryName,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,9 @@
+package com.example.product.dto;
+
+import java.util.List;
+
+/**
+ * @param nextCursor pass as {@code after} to get the next page; null on the last page
+ */
+public record ProductPage(List<ProductListItem> items, String nextCursor) {
+}
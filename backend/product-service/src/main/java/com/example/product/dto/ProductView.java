@@ -0,0 +1,45 @@
+package com.example.product.dto;
+
+import com.example.product.domain.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A product as the storefront sees it, detached from the persistence context so it can be
+ * cached and shared between requests. Serialises to the same JSON as the {@link Product} entity.
+ */
+public record ProductView(
+        String id,
+        String name,
+        String description,
+        BigDecimal price,
+        Integer inventory,
+        List<String> images,
+        CategoryView category,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    /**
+     * Copies a product whose images and category are already loaded.
+     */
+    public static ProductView of(Product product) {
+        CategoryView category = product.getCategory() == null ? null
+                : new CategoryView(product.getCategory().getId(), product.getCategory().getName(),
+                        product.getCategory().getDescription());
+        return new ProductView(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getInitialInventory(),
+                product.getImages() == null ? List.of() : List.copyOf(product.getImages()),
+                category,
+                product.getCreatedAt(),
+                product.getUpdatedAt());
+    }
+
+    public record CategoryView(Long id, String name, String description) {
+    }
+}
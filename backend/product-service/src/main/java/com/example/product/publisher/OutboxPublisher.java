@@ -0,0 +1,151 @@
+package com.example.product.publisher;
+
+import com.example.common.constants.KafkaConstants;
+import com.example.product.domain.Outbox;
+import com.example.product.repository.OutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Relays outbox events to their topics in batches: each run reads a batch of unsent
+ * rows, sends them without waiting in between, then waits for all of them and marks the sent
+ * ones in a single update. Only one replica relays at a time, so events of one product go out in
+ * the order they were recorded. Sending is at least once.
+ */
+@Component
+public class OutboxPublisher {
+    private static final Logger log = LoggerFactory.getLogger(OutboxPublisher.class);
+
+    private static final Set<String> SUPERSEDABLE = Set.of(KafkaConstants.PRODUCT_UPDATED_V1,
+            KafkaConstants.CATEGORY_CHANGED_V1);
+    private static final Set<String> PRODUCT_EVENTS = Set.of(KafkaConstants.PRODUCT_CREATED_V1,
+            KafkaConstants.PRODUCT_UPDATED_V1, KafkaConstants.PRODUCT_DELETED_V1);
+
+    private final OutboxRepository outboxRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration retention;
+
+    public OutboxPublisher(OutboxRepository outboxRepository, KafkaTemplate<String, String> kafkaTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.product.outbox.batch-size:500}") int batchSize,
+            @Value("${app.product.outbox.send-timeout:10s}") Duration sendTimeout,
+            @Value("${app.product.outbox.retention:1d}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${app.product.outbox.poll-interval-ms:500}")
+    public void publishEvents() {
+        // Keep going while batches come back full and were sent completely
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed >= batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${app.product.outbox.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeSent() {
+        int purged = outboxRepository.deleteSentBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} sent outbox events", purged);
+        }
+    }
+
+    /**
+     * @return how many rows were relayed, or 0 when a send failed or another replica is relaying
+     */
+    private int relayBatch() {
+        if (!outboxRepository.tryRelayLock()) {
+            return 0;
+        }
+        List<Outbox> batch = outboxRepository.findUnsent(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Outbox> events = coalesce(batch);
+        List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(events.size());
+        try {
+            for (Outbox outbox : events) {
+                String topic = outbox.getTopic() != null ? outbox.getTopic() : KafkaConstants.PRODUCT_EVENTS_TOPIC;
+                sends.add(kafkaTemplate.send(topic, outbox.getAggregateId(), outbox.getPayload()));
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to send outbox event {}", events.get(sends.size()).getId(), e);
+        }
+
+        // Everything recorded before the first failure is done; the rest is retried in order
+        long failedFrom = sends.size() < events.size() ? events.get(sends.size()).getId() : Long.MAX_VALUE;
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedFrom = events.get(i).getId();
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                log.error("Failed to publish outbox event {}", events.get(i).getId(), e);
+                failedFrom = events.get(i).getId();
+                break;
+            }
+        }
+
+        long sentBefore = failedFrom;
+        List<Long> sent = batch.stream().map(Outbox::getId).filter(id -> id < sentBefore).toList();
+        if (!sent.isEmpty()) {
+            outboxRepository.markSent(sent);
+        }
+        log.debug("Relayed {} outbox events as {} messages", sent.size(), sends.size());
+        return sent.size() == batch.size() ? sent.size() : 0;
+    }
+
+    /**
+     * Drops updates followed by a later event for the same product or category in the batch.
+     * Consumers take the current state from an update, so only the last one matters; creations and
+     * deletions are always kept, since they change which products exist. Other events, such as
+     * wishlist changes keyed by product, neither supersede nor are superseded.
+     */
+    static List<Outbox> coalesce(List<Outbox> batch) {
+        Set<String> later = new HashSet<>();
+        List<Outbox> kept = new ArrayList<>(batch.size());
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            Outbox outbox = batch.get(i);
+            String eventType = outbox.getEventType();
+            String aggregate = (KafkaConstants.CATEGORY_CHANGED_V1.equals(eventType) ? "category:"
+                    : PRODUCT_EVENTS.contains(eventType) ? "product:" : eventType + ":") + outbox.getAggregateId();
+            if (!later.add(aggregate) && SUPERSEDABLE.contains(outbox.getEventType())) {
+                continue;
+            }
+            kept.add(outbox);
+        }
+        Collections.reverse(kept);
+        return kept;
+    }
+}
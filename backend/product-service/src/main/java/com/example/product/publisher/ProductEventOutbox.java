@@ -0,0 +1,88 @@
+package com.example.product.publisher;
+
+import com.example.common.constants.KafkaConstants;
+import com.example.common.event.BaseEvent;
+import com.example.common.utils.CorrelationIdUtils;
+import com.example.product.domain.Outbox;
+import com.example.product.repository.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records product, category and wishlist events in the outbox table, in the caller's transaction, for
+ * {@link OutboxPublisher} to send once it has committed. An event of a rolled back change is
+ * never sent, and requests never wait on Kafka.
+ */
+@Component
+public class ProductEventOutbox {
+
+    private static final String INSERT_SQL = """
+            insert into outbox (topic, aggregate_id, event_type, payload, created_at, sent)
+            values (?, ?, ?, ?, ?, false)""";
+
+    private final OutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ProductEventOutbox(OutboxRepository outboxRepository, JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Appends an event for the product events topic.
+     *
+     * @param aggregateId the product or category id, which becomes the record key
+     */
+    public void append(String aggregateId, String eventType, Object payload) {
+        append(KafkaConstants.PRODUCT_EVENTS_TOPIC, aggregateId, eventType, payload);
+    }
+
+    public void append(String topic, String aggregateId, String eventType, Object payload) {
+        Outbox outbox = new Outbox();
+        outbox.setTopic(topic);
+        outbox.setAggregateId(aggregateId);
+        outbox.setEventType(eventType);
+        outbox.setPayload(serialize(eventType, payload, CorrelationIdUtils.getCorrelationId()));
+        outbox.setCreatedAt(LocalDateTime.now());
+        outbox.setSent(false);
+        outboxRepository.save(outbox);
+    }
+
+    /**
+     * Appends many events with one JDBC batch, for bulk operations.
+     */
+    public void appendAll(List<Event> events) {
+        String correlationId = CorrelationIdUtils.getCorrelationId();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (Event event : events) {
+            rows.add(new Object[] { event.topic(), event.aggregateId(), event.eventType(),
+                    serialize(event.eventType(), event.payload(), correlationId), now });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private String serialize(String eventType, Object payload, String correlationId) {
+        try {
+            return objectMapper.writeValueAsString(BaseEvent.create(eventType, payload, correlationId));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + eventType, e);
+        }
+    }
+
+    public record Event(String topic, String aggregateId, String eventType, Object payload) {
+        public static Event product(String aggregateId, String eventType, Object payload) {
+            return new Event(KafkaConstants.PRODUCT_EVENTS_TOPIC, aggregateId, eventType, payload);
+        }
+    }
+}
@@ -2,11 +2,16 @@ package com.example.product.repository;
 
 import com.example.product.domain.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByName(String name);
+
+    @Query("select c.id from Category c")
+    List<Long> findAllIds();
 }
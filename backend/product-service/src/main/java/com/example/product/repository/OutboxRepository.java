@@ -0,0 +1,31 @@
+package com.example.product.repository;
+
+import com.example.product.domain.Outbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<Outbox, Long> {
+
+    /**
+     * Takes the relay lock until the end of the transaction, so one replica relays at a time and
+     * events of a product cannot overtake each other; false when another replica holds it.
+     */
+    @Query(value = "select pg_try_advisory_xact_lock(hashtext('product-outbox-relay'))", nativeQuery = true)
+    boolean tryRelayLock();
+
+    @Query(value = "select * from outbox where sent = false order by id limit :limit", nativeQuery = true)
+    List<Outbox> findUnsent(int limit);
+
+    @Modifying
+    @Query("update Outbox o set o.sent = true where o.id in :ids")
+    int markSent(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Outbox o where o.sent = true and o.createdAt < :cutoff")
+    int deleteSentBefore(LocalDateTime cutoff);
+}
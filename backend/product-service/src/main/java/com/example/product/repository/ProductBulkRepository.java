@@ -0,0 +1,118 @@
+package com.example.product.repository;
+
+import com.example.product.dto.ProductImportRow;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes and reads the catalog in bulk for imports and exports, bypassing the entity mapping:
+ * upserts go out as JDBC batches and exports stream rows from a server-side cursor.
+ */
+@Repository
+public class ProductBulkRepository {
+
+    // A null category keeps the current one, as in an update through the API
+    private static final String UPSERT_SQL = """
+            insert into products (id, name, description, price, initial_inventory, category_id, created_at, updated_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (id) do update set name = excluded.name, description = excluded.description,
+                price = excluded.price, initial_inventory = excluded.initial_inventory,
+                category_id = coalesce(excluded.category_id, products.category_id),
+                updated_at = excluded.updated_at""";
+
+    private static final String DELETE_IMAGES_SQL = "delete from product_images where product_id = ?";
+    private static final String INSERT_IMAGE_SQL = "insert into product_images (product_id, image_url) values (?, ?)";
+
+    private static final String EXPORT_SQL = """
+            select p.id, p.name, p.description, p.price, p.initial_inventory, p.category_id,
+                   array(select i.image_url from product_images i where i.product_id = p.id) as images
+            from products p
+            order by p.created_at, p.id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public ProductBulkRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    /**
+     * @return the price and stock of those of the products that exist, by id
+     */
+    public Map<String, ProductState> findStates(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, ProductState> states = new HashMap<>();
+        namedJdbcTemplate.query("select id, price, initial_inventory from products where id in (:ids)",
+                Map.of("ids", ids), rs -> {
+                    states.put(rs.getString("id"), new ProductState(rs.getBigDecimal("price"),
+                            rs.getObject("initial_inventory", Integer.class)));
+                });
+        return states;
+    }
+
+    /**
+     * Inserts or updates every row, which must all have an id, and replaces the images of the
+     * rows that list them. Runs in the caller's transaction.
+     */
+    public void upsert(List<ProductImportRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> products = new ArrayList<>(rows.size());
+        List<Object[]> replacedImages = new ArrayList<>();
+        List<Object[]> images = new ArrayList<>();
+        for (ProductImportRow row : rows) {
+            products.add(new Object[] { row.id(), row.name(), row.description(), row.price(), row.inventory(),
+                    row.categoryId(), now, now });
+            if (row.images() != null) {
+                replacedImages.add(new Object[] { row.id() });
+                for (String image : row.images()) {
+                    images.add(new Object[] { row.id(), image });
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, products);
+        jdbcTemplate.batchUpdate(DELETE_IMAGES_SQL, replacedImages);
+        jdbcTemplate.batchUpdate(INSERT_IMAGE_SQL, images);
+    }
+
+    /**
+     * Passes every product to {@code consumer} in listing order, fetching {@code fetchSize} rows
+     * at a time. Postgres only uses a cursor inside a transaction, so call this from one.
+     */
+    public void streamAll(int fetchSize, Consumer<ProductImportRow> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXPORT_SQL);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            Array images = rs.getArray("images");
+            consumer.accept(new ProductImportRow(
+                    rs.getString("id"),
+                    rs.getString("name"),
+                    rs.getString("description"),
+                    rs.getBigDecimal("price"),
+                    rs.getObject("initial_inventory", Integer.class),
+                    rs.getObject("category_id", Long.class),
+                    images == null ? List.of() : Arrays.asList((String[]) images.getArray())));
+        });
+    }
+
+    public record ProductState(BigDecimal price, Integer inventory) {
+    }
+}
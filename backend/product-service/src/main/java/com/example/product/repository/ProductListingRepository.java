@@ -0,0 +1,78 @@
+package com.example.product.repository;
+
+import com.example.product.dto.ProductCursor;
+import com.example.product.dto.ProductListItem;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads catalog pages as a single projection: products joined to their category, with each
+ * product's images folded into an array by a subquery on {@code product_images}. Pages are
+ * keyset-paginated on (created_at, id), so a deep page costs the same as the first one.
+ */
+@Repository
+public class ProductListingRepository {
+
+    private static final RowMapper<ProductListItem> ROW_MAPPER = (rs, rowNum) -> {
+        Array images = rs.getArray("images");
+        return new ProductListItem(
+                rs.getString("id"),
+                rs.getString("name"),
+                rs.getBigDecimal("price"),
+                rs.getObject("initial_inventory", Integer.class),
+                images == null ? List.of() : Arrays.asList((String[]) images.getArray()),
+                rs.getObject("category_id", Long.class),
+                rs.getString("category_name"),
+                rs.getTimestamp("created_at").toLocalDateTime());
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ProductListingRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param after      position to continue from, or null for the first page
+     * @param categoryId only products in this category, or null for all
+     * @param minPrice   inclusive lower price bound, or null
+     * @param maxPrice   inclusive upper price bound, or null
+     */
+    public List<ProductListItem> findPage(ProductCursor after, Long categoryId, BigDecimal minPrice,
+            BigDecimal maxPrice, int limit) {
+        StringBuilder sql = new StringBuilder("""
+                select p.id, p.name, p.price, p.initial_inventory, p.created_at,
+                       p.category_id, c.name as category_name,
+                       array(select i.image_url from product_images i where i.product_id = p.id) as images
+                from products p
+                left join categories c on c.id = p.category_id
+                where true
+                """);
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        if (after != null) {
+            sql.append(" and (p.created_at, p.id) > (:afterCreatedAt, :afterId)");
+            params.addValue("afterCreatedAt", after.createdAt()).addValue("afterId", after.id());
+        }
+        if (categoryId != null) {
+            sql.append(" and p.category_id = :categoryId");
+            params.addValue("categoryId", categoryId);
+        }
+        if (minPrice != null) {
+            sql.append(" and p.price >= :minPrice");
+            params.addValue("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            sql.append(" and p.price <= :maxPrice");
+            params.addValue("maxPrice", maxPrice);
+        }
+        sql.append(" order by p.created_at, p.id limit :limit");
+        return jdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+    }
+}
@@ -1,12 +1,29 @@
 package com.example.product.repository;
 
 import com.example.product.domain.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, String> {
     List<Product> findByCategoryId(Long categoryId);
+
+    @Query("select p.id from Product p where p.category.id = :categoryId")
+    List<String> findIdsByCategoryId(Long categoryId);
+
+    @Query(value = "select exists (select 1 from products where category_id = :categoryId)", nativeQuery = true)
+    boolean existsByCategoryId(Long categoryId);
+
+    @Query("select p.id from Product p order by p.createdAt, p.id")
+    List<String> findAllIds();
+
+    // Images and category come in the same query instead of one lazy load per product
+    @EntityGraph(attributePaths = { "images", "category" })
+    @Query("select p from Product p where p.id in :ids")
+    List<Product> findWithDetailsByIdIn(Collection<String> ids);
 }
@@ -0,0 +1,82 @@
+package com.example.product.repository;
+
+import com.example.product.dto.ProductView;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes wishlist items directly, relying on the unique (wishlist_id, product_id) constraint
+ * instead of loading a wishlist and its items to look for duplicates.
+ */
+@Repository
+public class WishlistItemWriter {
+
+    private static final String UPSERT_ITEM_SQL = """
+            insert into wishlist_items (wishlist_id, product_id, product_name, product_image, price)
+            values (?, ?, ?, ?, ?)
+            on conflict (wishlist_id, product_id) do update set product_name = excluded.product_name,
+                product_image = excluded.product_image, price = excluded.price""";
+
+    private static final String REMOVE_ITEM_SQL = """
+            delete from wishlist_items
+            where wishlist_id = (select id from wishlists where user_id = ?) and product_id = ?""";
+
+    // A product without images keeps the image already shown; unchanged rows are not rewritten
+    private static final String REFRESH_SNAPSHOT_SQL = """
+            update wishlist_items set product_name = ?, price = ?, product_image = coalesce(?, product_image)
+            where product_id = ? and (product_name is distinct from ? or price is distinct from ?
+                or product_image is distinct from coalesce(?, product_image))""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WishlistItemWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the id of the user's wishlist, created if they had none
+     */
+    public long ensureWishlist(String userId) {
+        jdbcTemplate.update("insert into wishlists (user_id) values (?) on conflict (user_id) do nothing", userId);
+        return jdbcTemplate.queryForObject("select id from wishlists where user_id = ?", Long.class, userId);
+    }
+
+    /**
+     * Adds the product to the wishlist, or refreshes its snapshot when it is already there.
+     */
+    public void upsert(long wishlistId, String productId, String productName, String productImage,
+            BigDecimal price) {
+        jdbcTemplate.update(UPSERT_ITEM_SQL, wishlistId, productId, productName, productImage, price);
+    }
+
+    /**
+     * @return whether the product was on the wishlist
+     */
+    public boolean remove(String userId, String productId) {
+        return jdbcTemplate.update(REMOVE_ITEM_SQL, userId, productId) > 0;
+    }
+
+    /**
+     * Copies the current name, price and first image of each product onto every wishlist item
+     * for it, in one batch.
+     *
+     * @return how many items changed
+     */
+    public int refreshSnapshots(List<ProductView> products) {
+        List<Object[]> rows = new ArrayList<>(products.size());
+        for (ProductView product : products) {
+            String image = product.images().isEmpty() ? null : product.images().get(0);
+            rows.add(new Object[] { product.name(), product.price(), image, product.id(), product.name(),
+                    product.price(), image });
+        }
+        int changed = 0;
+        for (int count : jdbcTemplate.batchUpdate(REFRESH_SNAPSHOT_SQL, rows)) {
+            changed += Math.max(count, 0);
+        }
+        return changed;
+    }
+}
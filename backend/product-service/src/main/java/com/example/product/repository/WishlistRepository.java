@@ -1,10 +1,15 @@
 package com.example.product.repository;
 
 import com.example.product.domain.Wishlist;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
 
 public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
     Optional<Wishlist> findByUserId(String userId);
+
+    // Items come in the same query instead of a lazy load when the wishlist is serialised
+    @EntityGraph(attributePaths = "items")
+    Optional<Wishlist> findWithItemsByUserId(String userId);
 }
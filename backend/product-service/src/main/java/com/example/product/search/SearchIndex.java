@@ -0,0 +1,198 @@
+package com.example.product.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over product names, category names and descriptions, ranked with BM25. A field's
+ * term frequencies are weighted by the field's boost before scoring, so a match in the name
+ * counts for more than one in the description.
+ *
+ * <p>Every query term must match. The last one also matches as a prefix, for typeahead; its
+ * expansions are looked up in the sorted term dictionary and capped, and a document scores the
+ * best of the expansions it contains. Not thread-safe.
+ */
+public class SearchIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final float NAME_BOOST = 3;
+    private static final float CATEGORY_BOOST = 2;
+    private static final float DESCRIPTION_BOOST = 1;
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    // term -> document id -> boosted term frequency
+    private final NavigableMap<String, Map<String, Float>> postings = new TreeMap<>();
+    private final Map<String, Document> documents = new HashMap<>();
+    private double totalLength;
+
+    /**
+     * Adds a document, replacing any earlier version with the same id.
+     */
+    public void put(String id, String name, String categoryName, String description) {
+        remove(id);
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = addTerms(frequencies, name, NAME_BOOST)
+                + addTerms(frequencies, categoryName, CATEGORY_BOOST)
+                + addTerms(frequencies, description, DESCRIPTION_BOOST);
+        if (frequencies.isEmpty()) {
+            return;
+        }
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(id, frequency));
+        documents.put(id, new Document(length, List.copyOf(frequencies.keySet())));
+        totalLength += length;
+    }
+
+    public void remove(String id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<String, Float> docs = postings.get(term);
+            docs.remove(id);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= document.length();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * @return the best matches, best first
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || documents.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        double averageLength = totalLength / documents.size();
+        List<List<String>> expanded = new ArrayList<>();
+        for (int i = 0; i < terms.size(); i++) {
+            List<String> expansions = i == terms.size() - 1 ? expand(terms.get(i)) : List.of(terms.get(i));
+            if (expansions.isEmpty() || !postings.containsKey(expansions.get(0))) {
+                return List.of();
+            }
+            expanded.add(expansions);
+        }
+        // Start from the rarest query term; the others are only looked up for its matches
+        expanded.sort(Comparator.comparingInt(this::postingCount));
+        Map<String, Double> scores = new HashMap<>();
+        for (String term : expanded.get(0)) {
+            Map<String, Float> docs = postings.get(term);
+            double idf = idf(docs.size());
+            docs.forEach((id, tf) -> scores.merge(id, bm25(idf, tf, id, averageLength), Math::max));
+        }
+        for (List<String> expansions : expanded.subList(1, expanded.size())) {
+            var candidates = scores.entrySet().iterator();
+            while (candidates.hasNext()) {
+                Map.Entry<String, Double> candidate = candidates.next();
+                double best = 0;
+                for (String term : expansions) {
+                    Map<String, Float> docs = postings.get(term);
+                    Float tf = docs.get(candidate.getKey());
+                    if (tf != null) {
+                        best = Math.max(best, bm25(idf(docs.size()), tf, candidate.getKey(), averageLength));
+                    }
+                }
+                if (best == 0) {
+                    candidates.remove();
+                } else {
+                    candidate.setValue(candidate.getValue() + best);
+                }
+            }
+        }
+        return top(scores, limit);
+    }
+
+    private int postingCount(List<String> terms) {
+        int count = 0;
+        for (String term : terms) {
+            count += postings.get(term).size();
+        }
+        return count;
+    }
+
+    private double idf(int documentFrequency) {
+        int n = documents.size();
+        return Math.log(1 + (n - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private double bm25(double idf, double tf, String id, double averageLength) {
+        double norm = K1 * (1 - B + B * documents.get(id).length() / averageLength);
+        return idf * tf * (K1 + 1) / (tf + norm);
+    }
+
+    private List<String> expand(String prefix) {
+        List<String> terms = new ArrayList<>();
+        if (postings.containsKey(prefix)) {
+            terms.add(prefix);
+        }
+        for (String term : postings.subMap(prefix, false, prefix + Character.MAX_VALUE, false).keySet()) {
+            if (terms.size() == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            terms.add(term);
+        }
+        return terms;
+    }
+
+    private static List<Hit> top(Map<String, Double> scores, int limit) {
+        Comparator<Hit> byRank = Comparator.comparingDouble(Hit::score).thenComparing(Hit::id, Comparator.reverseOrder());
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, byRank);
+        scores.forEach((id, score) -> {
+            best.add(new Hit(id, score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(byRank.reversed());
+        return hits;
+    }
+
+    private static float addTerms(Map<String, Float> frequencies, String text, float boost) {
+        List<String> terms = tokenize(text);
+        for (String term : terms) {
+            frequencies.merge(term, boost, Float::sum);
+        }
+        return terms.size() * boost;
+    }
+
+    /**
+     * Lower-cases, strips accents and splits on anything that is not a letter or digit.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        for (String term : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    public record Hit(String id, double score) {
+    }
+
+    private record Document(float length, List<String> terms) {
+    }
+}
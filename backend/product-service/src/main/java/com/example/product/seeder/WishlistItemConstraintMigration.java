@@ -0,0 +1,60 @@
+package com.example.product.seeder;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-off migration for databases created before wishlist items were unique per wishlist and
+ * product: Hibernate's schema update cannot add {@code uk_wishlist_items_wishlist_product} while
+ * duplicates exist, and the item upsert needs it. Keeps the newest of each duplicate, then adds
+ * the constraint. Runs after the schema update, and does nothing once the constraint exists.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class WishlistItemConstraintMigration {
+    private static final Logger log = LoggerFactory.getLogger(WishlistItemConstraintMigration.class);
+
+    static final String CONSTRAINT = "uk_wishlist_items_wishlist_product";
+
+    private static final String CONSTRAINT_EXISTS_SQL = "select count(*) from pg_constraint where conname = ?";
+
+    private static final String DELETE_DUPLICATES_SQL = """
+            delete from wishlist_items i using wishlist_items newer
+            where newer.wishlist_id = i.wishlist_id and newer.product_id = i.product_id and newer.id > i.id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public WishlistItemConstraintMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (constraintExists() || jdbcTemplate.queryForObject("select to_regclass('wishlist_items')", String.class) == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Blocks writes until the constraint is in, and lets only one replica migrate
+            jdbcTemplate.execute("lock table wishlist_items in share row exclusive mode");
+            if (constraintExists()) {
+                return;
+            }
+            int removed = jdbcTemplate.update(DELETE_DUPLICATES_SQL);
+            jdbcTemplate.execute("alter table wishlist_items add constraint " + CONSTRAINT
+                    + " unique (wishlist_id, product_id)");
+            log.info("Removed {} duplicate wishlist items and added {}", removed, CONSTRAINT);
+        });
+    }
+
+    private boolean constraintExists() {
+        Integer count = jdbcTemplate.queryForObject(CONSTRAINT_EXISTS_SQL, Integer.class, CONSTRAINT);
+        return count != null && count > 0;
+    }
+}
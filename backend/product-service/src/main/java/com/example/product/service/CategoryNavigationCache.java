@@ -0,0 +1,139 @@
+package com.example.product.service;
+
+import com.example.product.dto.CategoryNavigation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the category navigation with per-category product counts in memory. It is loaded with
+ * two queries on first use and then kept current one product at a time: the category of every
+ * product is remembered, so a change only moves that product's count, without counting again.
+ * Reads share one immutable snapshot, rebuilt from the counts after a change.
+ */
+@Component
+public class CategoryNavigationCache {
+    private static final Logger log = LoggerFactory.getLogger(CategoryNavigationCache.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    // A product without a category maps to null
+    private final Map<String, Long> productCategories = new HashMap<>();
+    private final Map<Long, Long> counts = new HashMap<>();
+    private final Map<Long, CategoryNavigation.CategoryNode> categories = new HashMap<>();
+    private boolean loaded;
+    private volatile CategoryNavigation snapshot;
+
+    public CategoryNavigationCache(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public CategoryNavigation navigation() {
+        CategoryNavigation current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                load();
+            }
+            if (snapshot == null) {
+                snapshot = build();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Moves the product's count to the category it has now, after its change has committed.
+     *
+     * @param categoryId its category now, or null when it has none
+     * @param exists     false when the product was deleted
+     */
+    public synchronized void productChanged(String productId, Long categoryId, boolean exists) {
+        if (!loaded) {
+            // Counted when first read
+            return;
+        }
+        boolean existed = productCategories.containsKey(productId);
+        Long previous = productCategories.get(productId);
+        if (existed == exists && (!exists || Objects.equals(previous, categoryId))) {
+            return;
+        }
+        if (existed) {
+            productCategories.remove(productId);
+            counts.merge(previous, -1L, Long::sum);
+        }
+        if (exists) {
+            productCategories.put(productId, categoryId);
+            counts.merge(categoryId, 1L, Long::sum);
+        }
+        snapshot = null;
+    }
+
+    /**
+     * Re-reads the category's name and description, or drops it when it was deleted.
+     */
+    public synchronized void categoryChanged(Long categoryId) {
+        if (!loaded) {
+            return;
+        }
+        List<CategoryNavigation.CategoryNode> found = jdbcTemplate.query(
+                "select id, name, description from categories where id = ?",
+                (rs, rowNum) -> new CategoryNavigation.CategoryNode(rs.getLong("id"), rs.getString("name"),
+                        rs.getString("description"), 0),
+                categoryId);
+        if (found.isEmpty()) {
+            categories.remove(categoryId);
+        } else {
+            categories.put(categoryId, found.get(0));
+        }
+        snapshot = null;
+    }
+
+    /**
+     * Forgets everything after product events may have been missed; the next read loads again.
+     */
+    public synchronized void invalidateAll() {
+        loaded = false;
+        productCategories.clear();
+        counts.clear();
+        categories.clear();
+        snapshot = null;
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        jdbcTemplate.query("select id, name, description from categories", rs -> {
+            long id = rs.getLong("id");
+            categories.put(id, new CategoryNavigation.CategoryNode(id, rs.getString("name"),
+                    rs.getString("description"), 0));
+        });
+        jdbcTemplate.query("select id, category_id from products", rs -> {
+            Long categoryId = rs.getObject("category_id", Long.class);
+            productCategories.put(rs.getString("id"), categoryId);
+            counts.merge(categoryId, 1L, Long::sum);
+        });
+        loaded = true;
+        log.info("Loaded category navigation for {} products in {} ms", productCategories.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private CategoryNavigation build() {
+        List<CategoryNavigation.CategoryNode> nodes = new ArrayList<>(categories.size());
+        for (CategoryNavigation.CategoryNode category : categories.values()) {
+            nodes.add(new CategoryNavigation.CategoryNode(category.id(), category.name(), category.description(),
+                    counts.getOrDefault(category.id(), 0L)));
+        }
+        nodes.sort(Comparator.comparing(CategoryNavigation.CategoryNode::name, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(CategoryNavigation.CategoryNode::id));
+        return new CategoryNavigation(productCategories.size(), List.copyOf(nodes));
+    }
+}
@@ -1,8 +1,14 @@
 package com.example.product.service;
 
+import com.example.common.constants.KafkaConstants;
 import com.example.product.domain.Category;
+import com.example.product.dto.CategoryNavigation;
 import com.example.product.dto.CategoryRequest;
+import com.example.product.publisher.ProductEventOutbox;
 import com.example.product.repository.CategoryRepository;
+import com.example.product.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -10,10 +16,27 @@ import java.util.List;
 
 @Service
 public class CategoryService {
+    private static final Logger log = LoggerFactory.getLogger(CategoryService.class);
+
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final CategoryNavigationCache navigationCache;
+    private final ProductEventOutbox eventOutbox;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository,
+            ProductRepository productRepository,
+            ProductService productService,
+            CatalogVersion catalogVersion,
+            CategoryNavigationCache navigationCache,
+            ProductEventOutbox eventOutbox) {
         this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.catalogVersion = catalogVersion;
+        this.navigationCache = navigationCache;
+        this.eventOutbox = eventOutbox;
     }
 
     @Transactional(readOnly = true)
@@ -21,6 +44,10 @@ public class CategoryService {
         return categoryRepository.findAll();
     }
 
+    public CategoryNavigation getNavigation() {
+        return navigationCache.navigation();
+    }
+
     @Transactional(readOnly = true)
     public Category getCategoryById(Long id) {
         return categoryRepository.findById(id)
@@ -33,7 +60,10 @@ public class CategoryService {
             throw new RuntimeException("Category already exists with name: " + request.name());
         }
         Category category = new Category(request.name(), request.description());
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        publishCategoryChangedEvent(savedCategory.getId());
+        TransactionCallbacks.afterCommit(() -> onCategoryChanged(savedCategory.getId()));
+        return savedCategory;
     }
 
     @Transactional
@@ -41,15 +71,41 @@ public class CategoryService {
         Category category = getCategoryById(id);
         category.setName(request.name());
         category.setDescription(request.description());
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        publishCategoryChangedEvent(id);
+        TransactionCallbacks.afterCommit(() -> onCategoryChanged(id));
+        return savedCategory;
     }
 
     @Transactional
     public void deleteCategory(Long id) {
         Category category = getCategoryById(id);
-        if (category.getProducts() != null && !category.getProducts().isEmpty()) {
+        if (productRepository.existsByCategoryId(id)) {
             throw new RuntimeException("Cannot delete category with associated products");
         }
         categoryRepository.delete(category);
+        publishCategoryChangedEvent(id);
+        TransactionCallbacks.afterCommit(() -> onCategoryChanged(id));
+    }
+
+    /**
+     * Refreshes the cached views and search entries of the category's products, which carry its
+     * name, after a change made here or, through the product events, by another replica.
+     */
+    public void onCategoryChanged(Long categoryId) {
+        for (String productId : productRepository.findIdsByCategoryId(categoryId)) {
+            productService.onProductChanged(productId, false);
+        }
+        navigationCache.categoryChanged(categoryId);
+        catalogVersion.bump();
+    }
+
+    private void publishCategoryChangedEvent(Long categoryId) {
+        eventOutbox.append(String.valueOf(categoryId), KafkaConstants.CATEGORY_CHANGED_V1,
+                new CategoryChangedEventPayload(categoryId));
+        log.info("Saved outbox CategoryChangedEvent for category: {}", categoryId);
+    }
+
+    public record CategoryChangedEventPayload(Long categoryId) {
     }
 }
@@ -1,48 +1,39 @@
 package com.example.product.service;
 
+import com.example.common.web.ContentAddressedStore;
+import com.example.common.web.UploadProperties;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InputStream;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.Objects;
-import java.util.UUID;
 
 @Service
 public class FileStorageService {
-    private final Path fileStorageLocation;
+    private final ContentAddressedStore store;
+    private final ImageVariantService imageVariants;
 
-    public FileStorageService() {
-        this.fileStorageLocation = Paths.get("uploads").toAbsolutePath().normalize();
-        try {
-            Files.createDirectories(this.fileStorageLocation);
-        } catch (Exception ex) {
-            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
-        }
+    public FileStorageService(ImageVariantService imageVariants, UploadProperties uploads,
+            @Value("${spring.servlet.multipart.max-file-size:1MB}") DataSize maxFileSize) {
+        this.imageVariants = imageVariants;
+        this.store = new ContentAddressedStore(Paths.get(uploads.root()), maxFileSize.toBytes());
     }
 
+    /**
+     * Stores the upload under the hash of its content and returns that name; uploading an image
+     * that is already stored returns the existing name without writing it again.
+     */
     public String storeFile(MultipartFile file) {
-        String fileName = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
-        try {
-            if (fileName.contains("..")) {
-                throw new RuntimeException("Sorry! Filename contains invalid path sequence " + fileName);
-            }
-
-            String extension = "";
-            int i = fileName.lastIndexOf('.');
-            if (i > 0) {
-                extension = fileName.substring(i);
+        String fileName = file.getOriginalFilename();
+        try (InputStream content = file.getInputStream()) {
+            ContentAddressedStore.StoredFile stored = store.store(content, fileName);
+            if (stored.created() && file.getContentType() != null && file.getContentType().startsWith("image/")) {
+                imageVariants.schedule(stored.path());
             }
-            
-            String newFileName = UUID.randomUUID().toString() + extension;
-            Path targetLocation = this.fileStorageLocation.resolve(newFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-            return newFileName;
+            return stored.name();
         } catch (IOException ex) {
             throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
         }
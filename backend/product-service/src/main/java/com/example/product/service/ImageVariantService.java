@@ -0,0 +1,244 @@
+package com.example.product.service;
+
+import com.example.common.web.UploadVariants;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates downscaled, re-encoded copies of uploaded images next to the original, one per
+ * configured width, named {@code <name>-w<width>.<jpg|png>}. Work runs on a small bounded pool
+ * after the upload has been stored; when the queue is full the upload is left without variants
+ * and its original keeps being served, so uploads never wait on image processing.
+ *
+ * <p>Images with transparency stay PNG, everything else becomes progressive JPEG. Widths at or
+ * above the original's are skipped, and huge images are decoded subsampled to bound memory.
+ */
+@Service
+public class ImageVariantService implements UploadVariants {
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private final int[] widths;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantService(@Value("${app.product.images.widths:200,600,1600}") int[] widths,
+            @Value("${app.product.images.jpeg-quality:0.82}") float jpegQuality,
+            @Value("${app.product.images.max-pixels:50000000}") long maxPixels,
+            @Value("${app.product.images.workers:2}") int workers,
+            @Value("${app.product.images.queue-capacity:64}") int queueCapacity) {
+        this.widths = Arrays.stream(widths).sorted().toArray();
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues variant generation for a stored upload; anything that is not a readable image is
+     * skipped.
+     */
+    public void schedule(Path original) {
+        pending.add(original);
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(original);
+                } finally {
+                    pending.remove(original);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(original);
+            log.warn("Image variant queue full, serving {} without variants", original.getFileName());
+        }
+    }
+
+    /**
+     * Whether variants of the image are still queued or being generated, so the set of variants
+     * may still grow.
+     */
+    @Override
+    public boolean isPending(Path original) {
+        return pending.contains(original);
+    }
+
+    /**
+     * The stored variant closest to {@code width} without being narrower, or the widest one when
+     * all are narrower; null when the image has none.
+     */
+    @Override
+    public Path variantFor(Path original, int width) {
+        Path widest = null;
+        for (int candidate : widths) {
+            Path variant = existingVariant(original, candidate);
+            if (variant == null) {
+                continue;
+            }
+            if (candidate >= width) {
+                return variant;
+            }
+            widest = variant;
+        }
+        return widest;
+    }
+
+    private Path existingVariant(Path original, int width) {
+        for (String extension : new String[] { "jpg", "png" }) {
+            Path variant = variantPath(original, width, extension);
+            if (Files.isRegularFile(variant)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    private void generate(Path original) {
+        long start = System.nanoTime();
+        try {
+            BufferedImage source = read(original);
+            if (source == null) {
+                return;
+            }
+            boolean alpha = source.getColorModel().hasAlpha();
+            int written = 0;
+            for (int width : widths) {
+                if (width >= source.getWidth()) {
+                    break;
+                }
+                write(resize(source, width, alpha), variantPath(original, width, alpha ? "png" : "jpg"), alpha);
+                written++;
+            }
+            log.debug("Generated {} variants of {} in {} ms", written, original.getFileName(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to generate variants of {}", original.getFileName(), e);
+        }
+    }
+
+    /**
+     * Decodes the image, subsampled when it is far wider than the widest variant or too large to
+     * hold in memory; null when no reader recognises it.
+     */
+    private BufferedImage read(Path original) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                long pixels = (long) width * reader.getHeight(0);
+                int step = Math.max(1, width / (2 * widths[widths.length - 1]));
+                while (pixels / ((long) step * step) > maxPixels) {
+                    step++;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Halves the image until it is within twice the target, then scales the rest of the way;
+     * a single bilinear step from far larger drops most source pixels and aliases.
+     */
+    private static BufferedImage resize(BufferedImage source, int width, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width) {
+            current = scale(current, current.getWidth() / 2, Math.max(1, current.getHeight() / 2), type);
+        }
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        return scale(current, width, height, type);
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height, int type) {
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Encodes to a temporary file and moves it into place, so a request never sees half a variant.
+     */
+    private void write(BufferedImage image, Path target, boolean png) throws IOException {
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(png ? "png" : "jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(temporary.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (!png) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path variantPath(Path original, int width, String extension) {
+        String name = original.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return original.resolveSibling(base + "-w" + width + "." + extension);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Queued work is dropped; those uploads keep being served as originals
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.product.service;
+
+import com.example.product.domain.Product;
+import com.example.product.dto.ProductView;
+import com.example.product.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Two-level cache of the catalog as {@link ProductView}s: one entry per product, and the ordered
+ * list of product ids that makes up the full catalog. Listing the catalog reads the id list and
+ * loads only the products missing from the first level, in one fetch-joined query per chunk.
+ *
+ * <p>Entries are invalidated per product from the product events every replica consumes, and
+ * locally once the writing transaction commits. An update drops just that product; a create or
+ * delete also drops the id list. The TTL bounds staleness when an event is missed, for example
+ * while the consumer reconnects.
+ */
+@Component
+public class ProductCatalogCache {
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalogCache.class);
+
+    private static final String ALL = "all";
+    // Keeps the IN list of a bulk load well below the driver's bind parameter limit
+    private static final int LOAD_CHUNK = 1000;
+
+    private final ProductRepository productRepository;
+    private final LoadingCache<String, ProductView> views;
+    private final Cache<String, List<String>> catalogIds;
+
+    public ProductCatalogCache(ProductRepository productRepository, MeterRegistry meterRegistry,
+            @Value("${app.product.cache.max-size:10000}") long maxSize,
+            @Value("${app.product.cache.ttl:10m}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.views = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(this::load);
+        this.catalogIds = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        monitor(meterRegistry, views, "product.views");
+        monitor(meterRegistry, catalogIds, "product.catalog");
+    }
+
+    /**
+     * @return the product, or null when it does not exist
+     */
+    public ProductView get(String productId) {
+        return views.get(productId);
+    }
+
+    public List<ProductView> all() {
+        return getAll(catalogIds.get(ALL, key -> productRepository.findAllIds()));
+    }
+
+    /**
+     * @return the products that exist, in the order of {@code ids}
+     */
+    public List<ProductView> getAll(List<String> ids) {
+        Map<String, ProductView> loaded = views.getAll(ids, this::loadAll);
+        List<ProductView> products = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            ProductView view = loaded.get(id);
+            // Deleted since the ids were read
+            if (view != null) {
+                products.add(view);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * @param membershipChanged whether the product was created or deleted rather than updated
+     */
+    public void invalidate(String productId, boolean membershipChanged) {
+        views.invalidate(productId);
+        if (membershipChanged) {
+            catalogIds.invalidateAll();
+        }
+        log.debug("Invalidated cached product {}", productId);
+    }
+
+    public void invalidateAll() {
+        views.invalidateAll();
+        catalogIds.invalidateAll();
+    }
+
+    private ProductView load(String productId) {
+        List<Product> products = productRepository.findWithDetailsByIdIn(List.of(productId));
+        return products.isEmpty() ? null : ProductView.of(products.get(0));
+    }
+
+    private Map<String, ProductView> loadAll(Set<? extends String> productIds) {
+        List<String> ids = new ArrayList<>(productIds);
+        Map<String, ProductView> loaded = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK) {
+            List<String> chunk = ids.subList(from, Math.min(from + LOAD_CHUNK, ids.size()));
+            for (Product product : productRepository.findWithDetailsByIdIn(chunk)) {
+                loaded.put(product.getId(), ProductView.of(product));
+            }
+        }
+        return loaded;
+    }
+
+    private static void monitor(MeterRegistry registry, Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .register(registry);
+    }
+}
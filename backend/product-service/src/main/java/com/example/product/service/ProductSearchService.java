@@ -0,0 +1,172 @@
+package com.example.product.service;
+
+import com.example.product.domain.Product;
+import com.example.product.dto.ProductView;
+import com.example.product.repository.ProductRepository;
+import com.example.product.search.SearchIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps a {@link SearchIndex} of the whole catalog in memory. It is built from the database once
+ * the application is ready, rebuilt on a background thread whenever the product events consumer
+ * is reassigned, and updated one product at a time as product events arrive. A rebuild indexes into a fresh index
+ * and swaps it in, so searches keep being answered meanwhile; products refreshed while it loads
+ * are refreshed in the new index too before the swap. Rebuilds run one at a time, so an earlier
+ * one can never swap in after, and over, a later one.
+ */
+@Service
+public class ProductSearchService {
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchService.class);
+
+    private static final int LOAD_CHUNK = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductCatalogCache catalogCache;
+    private final int maxResults;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("search-rebuild").daemon().factory());
+    // Set while a background rebuild is queued but not yet started
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private SearchIndex index = new SearchIndex();
+    // Ids refreshed since the running rebuild started loading, or null when none is running
+    private Set<String> refreshedDuringRebuild;
+
+    public ProductSearchService(ProductRepository productRepository, ProductCatalogCache catalogCache,
+            @Value("${app.product.search.max-results:50}") int maxResults) {
+        this.productRepository = productRepository;
+        this.catalogCache = catalogCache;
+        this.maxResults = maxResults;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        SearchIndex rebuilt = new SearchIndex();
+        lock.writeLock().lock();
+        try {
+            refreshedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<String> ids = productRepository.findAllIds();
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK) {
+            List<String> chunk = ids.subList(from, Math.min(from + LOAD_CHUNK, ids.size()));
+            for (Product product : productRepository.findWithDetailsByIdIn(chunk)) {
+                put(rebuilt, ProductView.of(product));
+            }
+        }
+        // Loading what was refreshed meanwhile may take long enough for more refreshes to arrive
+        while (true) {
+            Set<String> refreshed;
+            lock.writeLock().lock();
+            try {
+                refreshed = refreshedDuringRebuild;
+                if (refreshed.isEmpty()) {
+                    index = rebuilt;
+                    refreshedDuringRebuild = null;
+                    break;
+                }
+                refreshedDuringRebuild = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            List<ProductView> products = catalogCache.getAll(List.copyOf(refreshed));
+            refreshed.forEach(rebuilt::remove);
+            products.forEach(product -> put(rebuilt, product));
+        }
+        log.info("Indexed {} products for search in {} ms", rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Queues a {@link #rebuild()} on the background thread and returns at once. Requests made while
+     * one is still queued share it; one made while a rebuild runs queues the next.
+     */
+    public void rebuildInBackground() {
+        if (!rebuildQueued.compareAndSet(false, true)) {
+            return;
+        }
+        rebuilder.execute(() -> {
+            rebuildQueued.set(false);
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Failed to rebuild the search index", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Re-indexes one product from the catalog cache, or drops it when it no longer exists.
+     * Callers invalidate the cached product first.
+     */
+    public void refresh(String productId) {
+        ProductView product = catalogCache.get(productId);
+        lock.writeLock().lock();
+        try {
+            if (product == null) {
+                index.remove(productId);
+            } else {
+                put(index, product);
+            }
+            if (refreshedDuringRebuild != null) {
+                refreshedDuringRebuild.add(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes many products at once, loading them from the catalog cache in bulk.
+     */
+    public void refresh(List<String> productIds) {
+        List<ProductView> products = catalogCache.getAll(productIds);
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(index::remove);
+            products.forEach(product -> put(index, product));
+            if (refreshedDuringRebuild != null) {
+                refreshedDuringRebuild.addAll(productIds);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductView> search(String query, int limit) {
+        List<SearchIndex.Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = index.search(query, Math.min(Math.max(limit, 1), maxResults));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return catalogCache.getAll(hits.stream().map(SearchIndex.Hit::id).toList());
+    }
+
+    private static void put(SearchIndex index, ProductView product) {
+        index.put(product.id(), product.name(),
+                product.category() == null ? null : product.category().name(), product.description());
+    }
+}
@@ -1,22 +1,30 @@
 package com.example.product.service;
 
 import com.example.common.constants.KafkaConstants;
-import com.example.common.event.BaseEvent;
-import com.example.common.utils.CorrelationIdUtils;
 import com.example.product.domain.Category;
 import com.example.product.domain.Product;
+import com.example.product.dto.ProductView;
+import com.example.product.dto.ProductCursor;
+import com.example.product.dto.ProductListItem;
+import com.example.product.dto.ProductPage;
 import com.example.product.dto.ProductRequest;
+import com.example.product.publisher.ProductEventOutbox;
 import com.example.product.repository.CategoryRepository;
+import com.example.product.repository.ProductListingRepository;
 import com.example.product.repository.ProductRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
@@ -24,35 +32,88 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final ProductEventOutbox eventOutbox;
     private final FileStorageService fileStorageService;
+    private final ProductCatalogCache catalogCache;
+    private final ProductSearchService searchService;
+    private final CatalogVersion catalogVersion;
+    private final CategoryNavigationCache navigationCache;
+    private final WishlistAlertService alertService;
+    private final ProductListingRepository listingRepository;
+    private final int maxPageSize;
 
     public ProductService(ProductRepository productRepository,
             CategoryRepository categoryRepository,
-            KafkaTemplate<String, String> kafkaTemplate,
-            ObjectMapper objectMapper,
-            FileStorageService fileStorageService) {
+            ProductEventOutbox eventOutbox,
+            FileStorageService fileStorageService,
+            ProductCatalogCache catalogCache,
+            ProductSearchService searchService,
+            CatalogVersion catalogVersion,
+            CategoryNavigationCache navigationCache,
+            WishlistAlertService alertService,
+            ProductListingRepository listingRepository,
+            @Value("${app.product.listing.max-page-size:100}") int maxPageSize) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
-        this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
+        this.eventOutbox = eventOutbox;
         this.fileStorageService = fileStorageService;
+        this.catalogCache = catalogCache;
+        this.searchService = searchService;
+        this.catalogVersion = catalogVersion;
+        this.navigationCache = navigationCache;
+        this.alertService = alertService;
+        this.listingRepository = listingRepository;
+        this.maxPageSize = maxPageSize;
     }
 
-    @Transactional(readOnly = true)
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public List<ProductView> getAllProducts() {
+        return catalogCache.all();
     }
 
-    @Transactional(readOnly = true)
-    public Product getProductById(String id) {
+    public ProductView getProductById(String id) {
+        ProductView product = catalogCache.get(id);
+        if (product == null) {
+            throw new RuntimeException("Product not found with id: " + id);
+        }
+        return product;
+    }
+
+    public List<ProductView> searchProducts(String query, int limit) {
+        return searchService.search(query, limit);
+    }
+
+    /**
+     * @param after cursor from the previous page, or null for the first page
+     */
+    public ProductPage listProducts(String after, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+            int size) {
+        int pageSize = Math.min(Math.max(size, 1), maxPageSize);
+        ProductCursor cursor = after == null || after.isBlank() ? null : decodeCursor(after);
+        // One extra row tells whether there is a next page
+        List<ProductListItem> rows = listingRepository.findPage(cursor, categoryId, minPrice, maxPrice, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new ProductPage(rows, null);
+        }
+        List<ProductListItem> items = rows.subList(0, pageSize);
+        return new ProductPage(List.copyOf(items), ProductCursor.after(items.get(pageSize - 1)).encode());
+    }
+
+    private static ProductCursor decodeCursor(String after) {
+        try {
+            return ProductCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            // Also thrown by the Base64 decoder for a cursor that is not Base64 at all
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + after, e);
+        }
+    }
+
+    private Product findProduct(String id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
 
     @Transactional
-    public Product createProduct(ProductRequest request, org.springframework.web.multipart.MultipartFile[] files) {
+    public ProductView createProduct(ProductRequest request, org.springframework.web.multipart.MultipartFile[] files) {
         Product product = new Product();
         mapRequestToProduct(request, product);
 
@@ -65,13 +126,15 @@ public class ProductService {
 
         Product savedProduct = productRepository.save(product);
         publishProductCreatedEvent(savedProduct);
-        return savedProduct;
+        TransactionCallbacks.afterCommit(() -> onProductChanged(savedProduct.getId(), true));
+        return ProductView.of(savedProduct);
     }
 
     @Transactional
-    public Product updateProduct(String id, ProductRequest request,
+    public ProductView updateProduct(String id, ProductRequest request,
             org.springframework.web.multipart.MultipartFile[] files) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
+        BigDecimal previousPrice = product.getPrice();
         mapRequestToProduct(request, product);
 
         if (files != null && files.length > 0) {
@@ -85,47 +148,85 @@ public class ProductService {
 
         Product savedProduct = productRepository.save(product);
         publishProductUpdatedEvent(savedProduct);
-        return savedProduct;
+        ProductView view = ProductView.of(savedProduct);
+        alertService.recordAlerts(List.of(new WishlistAlertService.ProductChange(view.id(), view.name(),
+                view.images().isEmpty() ? null : view.images().get(0), previousPrice,
+                view.price(), view.inventory())));
+        TransactionCallbacks.afterCommit(() -> onProductChanged(savedProduct.getId(), false));
+        return view;
     }
 
     @Transactional
     public void deleteProduct(String id) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
         productRepository.delete(product);
+        publishProductDeletedEvent(product);
+        TransactionCallbacks.afterCommit(() -> onProductChanged(id, true));
     }
 
-    private void publishProductUpdatedEvent(Product product) {
-        try {
-            String correlationId = CorrelationIdUtils.getCorrelationId();
-            BaseEvent<ProductCreatedEventPayload> event = BaseEvent.create(
-                    KafkaConstants.PRODUCT_UPDATED_V1,
-                    new ProductCreatedEventPayload(product.getId(), product.getInitialInventory()),
-                    correlationId);
-
-            kafkaTemplate.send(KafkaConstants.PRODUCT_EVENTS_TOPIC, product.getId(),
-                    objectMapper.writeValueAsString(event));
-
-            log.info("Published ProductUpdatedEvent for product: {}", product.getId());
-        } catch (JsonProcessingException e) {
-            log.error("Failed to publish ProductUpdatedEvent", e);
+    /**
+     * Drops the cached product and re-indexes it for search, after a change made here or, through
+     * the product events, by another replica.
+     *
+     * @param membershipChanged whether the product was created or deleted rather than updated
+     */
+    public void onProductChanged(String productId, boolean membershipChanged) {
+        catalogCache.invalidate(productId, membershipChanged);
+        searchService.refresh(productId);
+        ProductView product = catalogCache.get(productId);
+        navigationCache.productChanged(productId, categoryIdOf(product), product != null);
+        catalogVersion.bump();
+    }
+
+    /**
+     * {@link #onProductChanged} for many products at once, such as an import batch.
+     */
+    public void onProductsChanged(List<String> productIds, boolean membershipChanged) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        productIds.forEach(productId -> catalogCache.invalidate(productId, membershipChanged));
+        searchService.refresh(productIds);
+        Map<String, ProductView> products = catalogCache.getAll(productIds).stream()
+                .collect(Collectors.toMap(ProductView::id, Function.identity()));
+        for (String productId : productIds) {
+            ProductView product = products.get(productId);
+            navigationCache.productChanged(productId, categoryIdOf(product), product != null);
         }
+        catalogVersion.bump();
+    }
+
+    /**
+     * Drops everything derived from product events after some may have been missed. The search
+     * index is rebuilt in the background and keeps answering from the old one meanwhile.
+     */
+    public void onCatalogReset() {
+        catalogCache.invalidateAll();
+        navigationCache.invalidateAll();
+        searchService.rebuildInBackground();
+        catalogVersion.bump();
+    }
+
+    private static Long categoryIdOf(ProductView product) {
+        return product == null || product.category() == null ? null : product.category().id();
+    }
+
+    private void publishProductDeletedEvent(Product product) {
+        eventOutbox.append(product.getId(), KafkaConstants.PRODUCT_DELETED_V1,
+                new ProductDeletedEventPayload(product.getId()));
+        log.info("Saved outbox ProductDeletedEvent for product: {}", product.getId());
+    }
+
+    private void publishProductUpdatedEvent(Product product) {
+        eventOutbox.append(product.getId(), KafkaConstants.PRODUCT_UPDATED_V1,
+                new ProductCreatedEventPayload(product.getId(), product.getInitialInventory()));
+        log.info("Saved outbox ProductUpdatedEvent for product: {}", product.getId());
     }
 
     private void publishProductCreatedEvent(Product product) {
-        try {
-            String correlationId = CorrelationIdUtils.getCorrelationId();
-            BaseEvent<ProductCreatedEventPayload> event = BaseEvent.create(
-                    KafkaConstants.PRODUCT_CREATED_V1,
-                    new ProductCreatedEventPayload(product.getId(), product.getInitialInventory()),
-                    correlationId);
-
-            kafkaTemplate.send(KafkaConstants.PRODUCT_EVENTS_TOPIC, product.getId(),
-                    objectMapper.writeValueAsString(event));
-
-            log.info("Published ProductCreatedEvent for product: {}", product.getId());
-        } catch (JsonProcessingException e) {
-            log.error("Failed to publish ProductCreatedEvent", e);
-        }
+        eventOutbox.append(product.getId(), KafkaConstants.PRODUCT_CREATED_V1,
+                new ProductCreatedEventPayload(product.getId(), product.getInitialInventory()));
+        log.info("Saved outbox ProductCreatedEvent for product: {}", product.getId());
     }
 
     private void mapRequestToProduct(ProductRequest request, Product product) {
@@ -154,4 +255,7 @@ public class ProductService {
 
     public record ProductCreatedEventPayload(String productId, Integer initialQuantity) {
     }
+
+    public record ProductDeletedEventPayload(String productId) {
+    }
 }
@@ -0,0 +1,416 @@
+package com.example.product.service;
+
+import com.example.common.constants.KafkaConstants;
+import com.example.product.dto.ProductImportReport;
+import com.example.product.dto.ProductImportRow;
+import com.example.product.publisher.ProductEventOutbox;
+import com.example.product.repository.CategoryRepository;
+import com.example.product.repository.ProductBulkRepository;
+import com.example.product.transfer.CsvReader;
+import com.example.product.transfer.CsvWriter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Imports and exports the catalog as CSV or NDJSON, one product per record, without holding the
+ * whole file in memory. Imports are validated row by row and upserted in batches, each in its
+ * own transaction; a failed row is reported and the rest of the import carries on. CSV has a
+ * header naming the columns of {@link ProductImportRow}, with images separated by {@code |} and
+ * {@code \}, {@code |} and {@code [} inside a URL escaped with {@code \}. An empty images field
+ * leaves the stored images unchanged, while {@code []} clears them; exports write {@code []} for
+ * a product without images, so that importing an export restores the catalog as it was.
+ */
+@Service
+public class ProductTransferService {
+    private static final Logger log = LoggerFactory.getLogger(ProductTransferService.class);
+
+    private static final List<String> COLUMNS = List.of("id", "name", "description", "price", "inventory",
+            "categoryId", "images");
+    private static final char IMAGE_SEPARATOR = '|';
+    private static final char IMAGE_ESCAPE = '\\';
+    private static final String NO_IMAGES = "[]";
+    private static final int MAX_IMAGE_URL_LENGTH = 255;
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private final ProductBulkRepository bulkRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductService productService;
+    private final ProductEventOutbox eventOutbox;
+    private final WishlistAlertService alertService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxErrors;
+    private final int exportFetchSize;
+
+    public ProductTransferService(ProductBulkRepository bulkRepository,
+            CategoryRepository categoryRepository,
+            ProductService productService,
+            ProductEventOutbox eventOutbox,
+            WishlistAlertService alertService,
+            ObjectMapper objectMapper,
+            Validator validator,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.product.import.batch-size:500}") int batchSize,
+            @Value("${app.product.import.max-errors:100}") int maxErrors,
+            @Value("${app.product.export.fetch-size:500}") int exportFetchSize) {
+        this.bulkRepository = bulkRepository;
+        this.categoryRepository = categoryRepository;
+        this.productService = productService;
+        this.eventOutbox = eventOutbox;
+        this.alertService = alertService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.exportFetchSize = exportFetchSize;
+    }
+
+    public ProductImportReport importProducts(InputStream body, Format format) {
+        long start = System.nanoTime();
+        Set<Long> categoryIds = new HashSet<>(categoryRepository.findAllIds());
+        Progress progress = new Progress();
+        List<ParsedRow> batch = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        RowSource source = format == Format.CSV ? new CsvRows(new CsvReader(reader)) : new NdjsonRows(reader);
+        try {
+            ParsedRow parsed;
+            while ((parsed = source.next()) != null) {
+                String error = parsed.error() != null ? parsed.error() : validate(parsed.row(), categoryIds);
+                if (error != null) {
+                    progress.fail(parsed.line(), error);
+                    continue;
+                }
+                batch.add(parsed.row().id() == null ? parsed.withId(UUID.randomUUID().toString()) : parsed);
+                if (batch.size() >= batchSize) {
+                    write(batch, progress);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            // Nothing after a malformed record can be trusted to line up; keep what was read
+            progress.fail(source.line(), "Import stopped: " + e.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            write(batch, progress);
+        }
+        ProductImportReport report = progress.report();
+        log.info("Imported {} products ({} created, {} updated, {} failed) in {} ms", report.processed(),
+                report.created(), report.updated(), report.failed(), (System.nanoTime() - start) / 1_000_000);
+        return report;
+    }
+
+    /**
+     * Writes every product to {@code writer} in listing order, in the format
+     * {@link #importProducts} reads back.
+     */
+    @Transactional(readOnly = true)
+    public void exportProducts(Format format, Writer writer) throws IOException {
+        CsvWriter csv = format == Format.CSV ? new CsvWriter(writer) : null;
+        if (csv != null) {
+            csv.writeRow(COLUMNS);
+        }
+        try {
+            bulkRepository.streamAll(exportFetchSize, row -> {
+                try {
+                    if (csv != null) {
+                        csv.writeRow(Arrays.asList(row.id(), row.name(), row.description(),
+                                row.price() == null ? null : row.price().toPlainString(),
+                                row.inventory() == null ? null : String.valueOf(row.inventory()),
+                                row.categoryId() == null ? null : String.valueOf(row.categoryId()),
+                                joinImages(row.images())));
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    static String joinImages(List<String> images) {
+        if (images.isEmpty()) {
+            return NO_IMAGES;
+        }
+        StringBuilder joined = new StringBuilder();
+        for (String image : images) {
+            if (!joined.isEmpty()) {
+                joined.append(IMAGE_SEPARATOR);
+            }
+            for (int i = 0; i < image.length(); i++) {
+                char c = image.charAt(i);
+                // Escaping '[' keeps an image named "[]" apart from the empty list
+                if (c == IMAGE_SEPARATOR || c == IMAGE_ESCAPE || c == '[') {
+                    joined.append(IMAGE_ESCAPE);
+                }
+                joined.append(c);
+            }
+        }
+        return joined.toString();
+    }
+
+    static List<String> splitImages(String field) {
+        if (field.equals(NO_IMAGES)) {
+            return List.of();
+        }
+        List<String> images = new ArrayList<>();
+        StringBuilder image = new StringBuilder();
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == IMAGE_ESCAPE && i + 1 < field.length()) {
+                image.append(field.charAt(++i));
+            } else if (c == IMAGE_SEPARATOR) {
+                images.add(image.toString());
+                image.setLength(0);
+            } else {
+                image.append(c);
+            }
+        }
+        images.add(image.toString());
+        return images;
+    }
+
+    private String validate(ProductImportRow row, Set<Long> categoryIds) {
+        Set<ConstraintViolation<ProductImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        if (row.categoryId() != null && !categoryIds.contains(row.categoryId())) {
+            return "Category not found with id: " + row.categoryId();
+        }
+        if (row.images() != null
+                && row.images().stream().anyMatch(image -> image == null || image.length() > MAX_IMAGE_URL_LENGTH)) {
+            return "Image URLs must be present and at most " + MAX_IMAGE_URL_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    /**
+     * Upserts the batch and records its product events in one transaction, then refreshes the
+     * local catalog. When the batch is rejected, its rows are retried one at a time so that only
+     * the offending ones fail.
+     */
+    private void write(List<ParsedRow> batch, Progress progress) {
+        List<ProductImportRow> rows = batch.stream().map(ParsedRow::row).toList();
+        StoredBatch stored;
+        try {
+            stored = transactionTemplate.execute(status -> store(rows));
+        } catch (DataAccessException | TransactionException e) {
+            if (batch.size() == 1) {
+                progress.fail(batch.get(0).line(), "Could not be stored: " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            log.warn("Import batch of {} rows rejected, retrying row by row", batch.size(), e);
+            for (ParsedRow row : batch) {
+                write(List.of(row), progress);
+            }
+            return;
+        }
+        productService.onProductsChanged(stored.created(), true);
+        productService.onProductsChanged(stored.updated(), false);
+        progress.stored(stored.created().size(), stored.updated().size());
+        log.debug("Import progress: {} rows processed", progress.processed);
+    }
+
+    private StoredBatch store(List<ProductImportRow> rows) {
+        Map<String, ProductBulkRepository.ProductState> states = new HashMap<>(
+                bulkRepository.findStates(rows.stream().map(ProductImportRow::id).toList()));
+        bulkRepository.upsert(rows);
+        List<String> created = new ArrayList<>();
+        List<String> updated = new ArrayList<>();
+        List<ProductEventOutbox.Event> events = new ArrayList<>(rows.size());
+        List<WishlistAlertService.ProductChange> changes = new ArrayList<>();
+        for (ProductImportRow row : rows) {
+            // A repeated id within the batch was created by its first row and changes from the last
+            ProductBulkRepository.ProductState previous = states.put(row.id(),
+                    new ProductBulkRepository.ProductState(row.price(), row.inventory()));
+            boolean isNew = previous == null;
+            (isNew ? created : updated).add(row.id());
+            events.add(ProductEventOutbox.Event.product(row.id(),
+                    isNew ? KafkaConstants.PRODUCT_CREATED_V1 : KafkaConstants.PRODUCT_UPDATED_V1,
+                    new ProductService.ProductCreatedEventPayload(row.id(), row.inventory())));
+            if (!isNew) {
+                changes.add(new WishlistAlertService.ProductChange(row.id(), row.name(),
+                        row.images() == null || row.images().isEmpty() ? null : row.images().get(0),
+                        previous.price(), row.price(), row.inventory()));
+            }
+        }
+        eventOutbox.appendAll(events);
+        alertService.recordAlerts(changes);
+        return new StoredBatch(created, updated);
+    }
+
+    private record StoredBatch(List<String> created, List<String> updated) {
+    }
+
+    private record ParsedRow(long line, ProductImportRow row, String error) {
+        ParsedRow withId(String id) {
+            return new ParsedRow(line, row.withId(id), error);
+        }
+    }
+
+    private interface RowSource {
+        /**
+         * @return the next row, or null at the end of the input
+         */
+        ParsedRow next() throws IOException;
+
+        long line();
+    }
+
+    private static final class CsvRows implements RowSource {
+        private final CsvReader csv;
+        private Map<String, Integer> columns;
+
+        CsvRows(CsvReader csv) {
+            this.csv = csv;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            if (columns == null) {
+                List<String> header = csv.next();
+                if (header == null) {
+                    return null;
+                }
+                columns = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+            }
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            try {
+                String price = field(fields, "price");
+                String inventory = field(fields, "inventory");
+                String categoryId = field(fields, "categoryid");
+                String images = field(fields, "images");
+                return new ParsedRow(csv.line(), new ProductImportRow(
+                        field(fields, "id"),
+                        field(fields, "name"),
+                        field(fields, "description"),
+                        price == null ? null : new BigDecimal(price),
+                        inventory == null ? null : Integer.valueOf(inventory),
+                        categoryId == null ? null : Long.valueOf(categoryId),
+                        images == null ? null : splitImages(images)), null);
+            } catch (NumberFormatException e) {
+                return new ParsedRow(csv.line(), null, "Price, inventory and categoryId must be numbers");
+            }
+        }
+
+        @Override
+        public long line() {
+            return csv.line();
+        }
+
+        /**
+         * The trimmed field, or null when it is empty or the column is missing.
+         */
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    private final class NdjsonRows implements RowSource {
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ParsedRow(line, objectMapper.readValue(text, ProductImportRow.class), null);
+                } catch (JsonProcessingException e) {
+                    return new ParsedRow(line, null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+    }
+
+    private final class Progress {
+        private long processed;
+        private long created;
+        private long updated;
+        private long failed;
+        private final List<ProductImportReport.RowError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            processed++;
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportReport.RowError(line, message));
+            }
+        }
+
+        void stored(int createdRows, int updatedRows) {
+            processed += createdRows + updatedRows;
+            created += createdRows;
+            updated += updatedRows;
+        }
+
+        ProductImportReport report() {
+            return new ProductImportReport(processed, created, updated, failed, List.copyOf(errors));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.product.service;
+
+import com.example.common.constants.KafkaConstants;
+import com.example.product.dto.ProductView;
+import com.example.product.publisher.ProductEventOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records price-drop and back-in-stock alerts for the users watching a product, as events on the
+ * notifications topic; each event names the product once for up to {@code max-recipients} users.
+ * Price drops are recorded in the outbox by the transaction that changes the product, the one
+ * place its previous price is known for certain. Stock is kept by inventory-service, which
+ * reports when a product's live stock comes back, whether by an admin edit or released stock.
+ */
+@Service
+public class WishlistAlertService {
+    private static final Logger log = LoggerFactory.getLogger(WishlistAlertService.class);
+
+    public enum AlertType {
+        PRICE_DROP, BACK_IN_STOCK
+    }
+
+    private final WishlistIndex wishlistIndex;
+    private final ProductEventOutbox eventOutbox;
+    private final ProductCatalogCache catalogCache;
+    private final int maxRecipients;
+
+    public WishlistAlertService(WishlistIndex wishlistIndex, ProductEventOutbox eventOutbox,
+            ProductCatalogCache catalogCache,
+            @Value("${app.product.wishlist.alerts.max-recipients:500}") int maxRecipients) {
+        this.wishlistIndex = wishlistIndex;
+        this.eventOutbox = eventOutbox;
+        this.catalogCache = catalogCache;
+        this.maxRecipients = maxRecipients;
+    }
+
+    /**
+     * Runs in the caller's transaction, so the alerts go out only if the changes commit.
+     */
+    public void recordAlerts(List<ProductChange> changes) {
+        List<ProductEventOutbox.Event> events = new ArrayList<>();
+        for (ProductChange change : changes) {
+            List<AlertType> alerts = alertsFor(change);
+            if (alerts.isEmpty()) {
+                continue;
+            }
+            addEvents(events, new WishlistAlertsEventPayload(change.productId(), change.name(), change.image(),
+                    alerts, change.previousPrice(), change.price(), change.inventory(), List.of()));
+        }
+        if (!events.isEmpty()) {
+            eventOutbox.appendAll(events);
+            log.info("Saved {} outbox wishlist alert events for {} changed products", events.size(), changes.size());
+        }
+    }
+
+    /**
+     * Records a back-in-stock alert for a product whose live stock came back.
+     */
+    @Transactional
+    public void recordRestock(String productId, Integer availableQuantity) {
+        ProductView product = catalogCache.get(productId);
+        if (product == null) {
+            return;
+        }
+        List<ProductEventOutbox.Event> events = new ArrayList<>();
+        addEvents(events, new WishlistAlertsEventPayload(productId, product.name(),
+                product.images().isEmpty() ? null : product.images().get(0), List.of(AlertType.BACK_IN_STOCK),
+                null, product.price(), availableQuantity, List.of()));
+        if (!events.isEmpty()) {
+            eventOutbox.appendAll(events);
+            log.info("Saved {} outbox back-in-stock alert events for product {}", events.size(), productId);
+        }
+    }
+
+    /**
+     * Adds one copy of {@code alert} per {@code max-recipients} watchers of its product.
+     */
+    private void addEvents(List<ProductEventOutbox.Event> events, WishlistAlertsEventPayload alert) {
+        List<String> users = new ArrayList<>(wishlistIndex.watchers(alert.productId()));
+        for (int from = 0; from < users.size(); from += maxRecipients) {
+            List<String> recipients = List.copyOf(users.subList(from, Math.min(from + maxRecipients, users.size())));
+            events.add(new ProductEventOutbox.Event(KafkaConstants.NOTIFICATION_EVENTS_TOPIC, alert.productId(),
+                    KafkaConstants.WISHLIST_ALERTS_V1, alert.withUserIds(recipients)));
+        }
+    }
+
+    static List<AlertType> alertsFor(ProductChange change) {
+        if (change.previousPrice() != null && change.price() != null
+                && change.price().compareTo(change.previousPrice()) < 0) {
+            return List.of(AlertType.PRICE_DROP);
+        }
+        return List.of();
+    }
+
+    /**
+     * An updated product with its price before and after the update.
+     *
+     * @param image the product's first image, or null when it has none or it was not changed
+     */
+    public record ProductChange(String productId, String name, String image, BigDecimal previousPrice,
+            BigDecimal price, Integer inventory) {
+    }
+
+    public record WishlistAlertsEventPayload(String productId, String productName, String productImage,
+            List<AlertType> alerts, BigDecimal previousPrice, BigDecimal price, Integer inventory,
+            List<String> userIds) {
+        WishlistAlertsEventPayload withUserIds(List<String> recipients) {
+            return new WishlistAlertsEventPayload(productId, productName, productImage, alerts, previousPrice, price,
+                    inventory, recipients);
+        }
+    }
+}
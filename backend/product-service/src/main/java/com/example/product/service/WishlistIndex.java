@@ -0,0 +1,77 @@
+package com.example.product.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which users have each product on their wishlist, so that a product change finds whom to alert
+ * without scanning wishlists. Loaded from the wishlist items on first use and after
+ * {@link #invalidateAll()}, then kept current from wishlist changes made here or, through the
+ * product events, by another replica. Only wishlisted products take up memory.
+ */
+@Component
+public class WishlistIndex {
+    private static final Logger log = LoggerFactory.getLogger(WishlistIndex.class);
+
+    private static final String LOAD_SQL = """
+            select i.product_id, w.user_id
+            from wishlist_items i join wishlists w on w.id = i.wishlist_id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Null until loaded; changes before then are in the table the load reads
+    private Map<String, Set<String>> watchers;
+
+    public WishlistIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public synchronized Set<String> watchers(String productId) {
+        if (watchers == null) {
+            watchers = load();
+        }
+        Set<String> users = watchers.get(productId);
+        return users == null ? Set.of() : Set.copyOf(users);
+    }
+
+    public synchronized void added(String productId, String userId) {
+        if (watchers != null) {
+            watchers.computeIfAbsent(productId, id -> new HashSet<>()).add(userId);
+        }
+    }
+
+    public synchronized void removed(String productId, String userId) {
+        if (watchers == null) {
+            return;
+        }
+        Set<String> users = watchers.get(productId);
+        if (users != null && users.remove(userId) && users.isEmpty()) {
+            watchers.remove(productId);
+        }
+    }
+
+    /**
+     * Drops the index after wishlist changes may have been missed; the next lookup reloads it.
+     */
+    public synchronized void invalidateAll() {
+        watchers = null;
+    }
+
+    private Map<String, Set<String>> load() {
+        long start = System.nanoTime();
+        Map<String, Set<String>> loaded = new HashMap<>();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            loaded.computeIfAbsent(rs.getString("product_id"), id -> new HashSet<>()).add(rs.getString("user_id"));
+        });
+        log.info("Loaded wishlist index of {} products in {} ms", loaded.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+}
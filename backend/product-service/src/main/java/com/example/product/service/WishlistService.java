@@ -1,56 +1,76 @@
 package com.example.product.service;
 
+import com.example.common.constants.KafkaConstants;
 import com.example.product.domain.Wishlist;
-import com.example.product.domain.WishlistItem;
+import com.example.product.publisher.ProductEventOutbox;
+import com.example.product.repository.WishlistItemWriter;
 import com.example.product.repository.WishlistRepository;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.Optional;
 
 @Service
 @Transactional
 public class WishlistService {
 
     private final WishlistRepository wishlistRepository;
+    private final WishlistItemWriter itemWriter;
+    private final WishlistIndex wishlistIndex;
+    private final ProductEventOutbox eventOutbox;
 
-    public WishlistService(WishlistRepository wishlistRepository) {
+    public WishlistService(WishlistRepository wishlistRepository, WishlistItemWriter itemWriter,
+            WishlistIndex wishlistIndex, ProductEventOutbox eventOutbox) {
         this.wishlistRepository = wishlistRepository;
+        this.itemWriter = itemWriter;
+        this.wishlistIndex = wishlistIndex;
+        this.eventOutbox = eventOutbox;
     }
 
     public Wishlist getWishlist(String userId) {
-        return wishlistRepository.findByUserId(userId)
+        return wishlistRepository.findWithItemsByUserId(userId)
                 .orElseGet(() -> {
-                    Wishlist wishlist = Wishlist.builder().userId(userId).build();
-                    return wishlistRepository.save(wishlist);
+                    itemWriter.ensureWishlist(userId);
+                    return load(userId);
                 });
     }
 
     public Wishlist addToWishlist(String userId, String productId, String productName, String productImage,
             BigDecimal price) {
-        Wishlist wishlist = getWishlist(userId);
-        boolean exists = wishlist.getItems().stream()
-                .anyMatch(item -> item.getProductId().equals(productId));
-
-        if (!exists) {
-            WishlistItem newItem = WishlistItem.builder()
-                    .productId(productId)
-                    .productName(productName)
-                    .productImage(productImage)
-                    .price(price)
-                    .wishlist(wishlist)
-                    .build();
-            wishlist.addItem(newItem);
-            return wishlistRepository.save(wishlist);
-        }
-        return wishlist;
+        itemWriter.upsert(itemWriter.ensureWishlist(userId), productId, productName, productImage, price);
+        recordChange(productId, userId, true);
+        return load(userId);
     }
 
     public Wishlist removeFromWishlist(String userId, String productId) {
-        Wishlist wishlist = getWishlist(userId);
-        wishlist.getItems().removeIf(item -> item.getProductId().equals(productId));
-        return wishlistRepository.save(wishlist);
+        if (itemWriter.remove(userId, productId)) {
+            recordChange(productId, userId, false);
+        }
+        return getWishlist(userId);
+    }
+
+    /**
+     * Updates this replica's wishlist index once the change commits, and tells the other
+     * replicas through the wishlist events. They have a topic of their own so that consumers of
+     * the product events, such as analytics, never count them.
+     */
+    private void recordChange(String productId, String userId, boolean watching) {
+        eventOutbox.append(KafkaConstants.WISHLIST_EVENTS_TOPIC, productId, KafkaConstants.WISHLIST_CHANGED_V1,
+                new WishlistChangedEventPayload(productId, userId, watching));
+        TransactionCallbacks.afterCommit(() -> {
+            if (watching) {
+                wishlistIndex.added(productId, userId);
+            } else {
+                wishlistIndex.removed(productId, userId);
+            }
+        });
+    }
+
+    private Wishlist load(String userId) {
+        return wishlistRepository.findWithItemsByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Wishlist not found for user: " + userId));
+    }
+
+    public record WishlistChangedEventPayload(String productId, String userId, boolean watching) {
     }
 }
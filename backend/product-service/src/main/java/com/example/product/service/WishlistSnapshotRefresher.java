@@ -0,0 +1,115 @@
+package com.example.product.service;
+
+import com.example.product.dto.ProductView;
+import com.example.product.repository.WishlistItemWriter;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Brings the product snapshots on wishlist items up to date in the background. Updated products
+ * are collected as their events arrive and written out periodically in batches, so a burst of
+ * updates to one product, such as an import, costs one refresh. The events' offsets are
+ * acknowledged only once every product they named has been written, so ids lost to a restart,
+ * a rebalance or a failed write are redelivered instead of dropped.
+ */
+@Service
+public class WishlistSnapshotRefresher {
+    private static final Logger log = LoggerFactory.getLogger(WishlistSnapshotRefresher.class);
+
+    private final ProductCatalogCache catalogCache;
+    private final WishlistItemWriter itemWriter;
+    private final int batchSize;
+    private final Set<String> updated = ConcurrentHashMap.newKeySet();
+    // Only the latest ack per partition is kept: acknowledging it commits everything before it
+    private final Map<TopicPartition, Acknowledgment> pendingAcks = new ConcurrentHashMap<>();
+    // Listeners share the read side; a refresh takes the write side to take ids and acks together
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    public WishlistSnapshotRefresher(ProductCatalogCache catalogCache, WishlistItemWriter itemWriter,
+            @Value("${app.product.wishlist.refresh-batch-size:500}") int batchSize) {
+        this.catalogCache = catalogCache;
+        this.itemWriter = itemWriter;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param productId the updated product, or null for an event that needs no refresh and only
+     *                  has its offset acknowledged along with the others
+     */
+    public void productUpdated(String productId, TopicPartition partition, Acknowledgment ack) {
+        snapshotLock.readLock().lock();
+        try {
+            if (productId != null) {
+                updated.add(productId);
+            }
+            pendingAcks.put(partition, ack);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.product.wishlist.refresh-interval-ms:2000}")
+    public synchronized void refresh() {
+        List<String> productIds;
+        Map<TopicPartition, Acknowledgment> acks;
+        snapshotLock.writeLock().lock();
+        try {
+            productIds = new ArrayList<>(updated);
+            acks = new HashMap<>(pendingAcks);
+            updated.clear();
+            pendingAcks.clear();
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+
+        List<String> failed = new ArrayList<>();
+        for (int from = 0; from < productIds.size(); from += batchSize) {
+            List<String> batch = productIds.subList(from, Math.min(from + batchSize, productIds.size()));
+            if (!write(batch)) {
+                failed.addAll(batch);
+            }
+        }
+        if (failed.isEmpty()) {
+            acks.values().forEach(Acknowledgment::acknowledge);
+            return;
+        }
+        // Written batches are not undone; rewriting them next time is harmless
+        snapshotLock.writeLock().lock();
+        try {
+            updated.addAll(failed);
+            // A newer ack recorded meanwhile already covers the older one
+            acks.forEach(pendingAcks::putIfAbsent);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    private boolean write(List<String> productIds) {
+        try {
+            // This replica's catalog listener may not have dropped the old views yet
+            productIds.forEach(productId -> catalogCache.invalidate(productId, false));
+            List<ProductView> products = catalogCache.getAll(productIds);
+            int changed = itemWriter.refreshSnapshots(products);
+            log.debug("Refreshed {} wishlist items for {} updated products", changed, products.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh wishlist snapshots of {} products, retrying on the next run",
+                    productIds.size(), e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.product.publisher;
+
+import com.example.common.constants.KafkaConstants;
+import com.example.product.domain.Outbox;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OutboxPublisherTest {
+
+        @Test
+        void keepsOnlyTheLastUpdatePerAggregateAndEveryCreationOrDeletion() {
+                List<Outbox> batch = new ArrayList<>();
+                batch.add(outbox(1, "p1", KafkaConstants.PRODUCT_CREATED_V1));
+                batch.add(outbox(2, "p1", KafkaConstants.PRODUCT_UPDATED_V1));
+                batch.add(outbox(3, "p2", KafkaConstants.PRODUCT_UPDATED_V1));
+                batch.add(outbox(4, "p1", KafkaConstants.PRODUCT_UPDATED_V1));
+                batch.add(outbox(5, "p2", KafkaConstants.PRODUCT_DELETED_V1));
+                batch.add(outbox(6, "7", KafkaConstants.CATEGORY_CHANGED_V1));
+                batch.add(outbox(7, "7", KafkaConstants.CATEGORY_CHANGED_V1));
+                // A category and a product sharing an id do not supersede each other
+                batch.add(outbox(8, "7", KafkaConstants.PRODUCT_UPDATED_V1));
+                // Nor does a wishlist change keyed by the product
+                batch.add(outbox(9, "7", KafkaConstants.WISHLIST_CHANGED_V1));
+
+                assertThat(OutboxPublisher.coalesce(batch)).extracting(Outbox::getId)
+                                .containsExactly(1L, 4L, 5L, 7L, 8L, 9L);
+        }
+
+        private static Outbox outbox(long id, String aggregateId, String eventType) {
+                Outbox outbox = new Outbox();
+                outbox.setId(id);
+                outbox.setAggregateId(aggregateId);
+                outbox.setEventType(eventType);
+                return outbox;
+        }
+}
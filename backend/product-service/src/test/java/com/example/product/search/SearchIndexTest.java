@@ -0,0 +1,51 @@
+package com.example.product.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchIndexTest {
+
+        @Test
+        void ranksNameMatchesFirstAndRequiresEveryTerm() {
+                SearchIndex index = new SearchIndex();
+                index.put("phone", "Premium Smartphone X", "Electronics", "Flagship phone with 5G");
+                index.put("case", "Leather Case", "Accessories", "Fits the Premium Smartphone X");
+                index.put("sofa", "Scandinavian Sofa", "Home & Garden", "Comfortable three-seater");
+
+                assertThat(ids(index.search("smartphone", 10))).containsExactly("phone", "case");
+                assertThat(ids(index.search("leather smartphone", 10))).containsExactly("case");
+                assertThat(index.search("smartphone sofa", 10)).isEmpty();
+        }
+
+        @Test
+        void matchesLastTermAsPrefixAndFoldsAccents() {
+                SearchIndex index = new SearchIndex();
+                index.put("sofa", "Scandinavian Sofa", "Home & Garden", null);
+                index.put("cafe", "Café Table", "Home & Garden", null);
+
+                assertThat(ids(index.search("scand", 10))).containsExactly("sofa");
+                assertThat(ids(index.search("CAFE", 10))).containsExactly("cafe");
+                assertThat(ids(index.search("garden", 1))).hasSize(1);
+        }
+
+        @Test
+        void replacingAndRemovingDocumentsUpdatesPostings() {
+                SearchIndex index = new SearchIndex();
+                index.put("p1", "Wireless Headphones", "Electronics", null);
+                index.put("p1", "Wired Headphones", "Electronics", null);
+
+                assertThat(index.search("wireless", 10)).isEmpty();
+                assertThat(ids(index.search("wired", 10))).containsExactly("p1");
+
+                index.remove("p1");
+                assertThat(index.size()).isZero();
+                assertThat(index.search("headphones", 10)).isEmpty();
+        }
+
+        private static List<String> ids(List<SearchIndex.Hit> hits) {
+                return hits.stream().map(SearchIndex.Hit::id).toList();
+        }
+}
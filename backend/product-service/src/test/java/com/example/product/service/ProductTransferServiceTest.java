@@ -0,0 +1,88 @@
+package com.example.product.service;
+
+import com.example.product.dto.ProductImportReport;
+import com.example.product.dto.ProductImportRow;
+import com.example.product.publisher.ProductEventOutbox;
+import com.example.product.repository.CategoryRepository;
+import com.example.product.repository.ProductBulkRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ProductTransferServiceTest {
+
+        private final ProductBulkRepository bulkRepository = mock(ProductBulkRepository.class);
+        private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        private final ProductTransferService service = new ProductTransferService(bulkRepository, categoryRepository,
+                        mock(ProductService.class), mock(ProductEventOutbox.class), mock(WishlistAlertService.class),
+                        new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(),
+                        new TransactionTemplate(mock(PlatformTransactionManager.class)), 3, 100, 500);
+
+        @Test
+        void retriesARejectedBatchRowByRowAndCountsCreatedAndUpdated() {
+                when(categoryRepository.findAllIds()).thenReturn(List.of());
+                // p2 already exists
+                when(bulkRepository.findStates(any())).thenAnswer(invocation -> {
+                        Collection<String> ids = invocation.getArgument(0);
+                        return ids.contains("p2")
+                                        ? Map.of("p2", new ProductBulkRepository.ProductState(new BigDecimal("5"), 1))
+                                        : Map.of();
+                });
+                // The database rejects p3, and with it the first batch of three
+                doAnswer(invocation -> {
+                        List<ProductImportRow> rows = invocation.getArgument(0);
+                        if (rows.stream().anyMatch(row -> "p3".equals(row.id()))) {
+                                throw new DataIntegrityViolationException("duplicate key");
+                        }
+                        return null;
+                }).when(bulkRepository).upsert(anyList());
+
+                String csv = """
+                                id,name,price,inventory
+                                p1,Lamp,10,1
+                                p2,Desk,20,2
+                                p3,Chair,30,3
+                                p4,,40,4
+                                p5,Rug,50,5
+                                """;
+                ProductImportReport report = service.importProducts(
+                                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductTransferService.Format.CSV);
+
+                assertThat(report.processed()).isEqualTo(5);
+                assertThat(report.created()).isEqualTo(2);
+                assertThat(report.updated()).isEqualTo(1);
+                assertThat(report.failed()).isEqualTo(2);
+                assertThat(report.errors()).extracting(ProductImportReport.RowError::line).containsExactly(4L, 5L);
+                // The rejected batch, its three single rows, then the last batch holding only p5
+                verify(bulkRepository, times(5)).upsert(anyList());
+        }
+
+        @Test
+        void imageListsRoundTripThroughTheCsvField() {
+                List<String> images = List.of("/uploads/a|b.jpg", "C:\\img.png", "[]");
+                assertThat(ProductTransferService.splitImages(ProductTransferService.joinImages(images)))
+                                .isEqualTo(images);
+                assertThat(ProductTransferService.joinImages(List.of())).isEqualTo("[]");
+                assertThat(ProductTransferService.splitImages("[]")).isEmpty();
+                assertThat(ProductTransferService.splitImages("/a.jpg|/b.jpg")).containsExactly("/a.jpg", "/b.jpg");
+        }
+}
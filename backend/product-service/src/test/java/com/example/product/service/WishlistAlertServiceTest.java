@@ -0,0 +1,28 @@
+package com.example.product.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WishlistAlertServiceTest {
+
+        @Test
+        void alertsOnPriceDropsOnly() {
+                assertThat(WishlistAlertService.alertsFor(change("10.00", "9.99", 5)))
+                                .containsExactly(WishlistAlertService.AlertType.PRICE_DROP);
+                // Same price at another scale, or a rise
+                assertThat(WishlistAlertService.alertsFor(change("10.00", "10.0", 8))).isEmpty();
+                assertThat(WishlistAlertService.alertsFor(change("10.00", "12.00", 0))).isEmpty();
+                // Without a previous value there is nothing to compare with
+                assertThat(WishlistAlertService.alertsFor(change(null, "1.00", 1))).isEmpty();
+        }
+
+        private static WishlistAlertService.ProductChange change(String previousPrice, String price,
+                        Integer inventory) {
+                return new WishlistAlertService.ProductChange("p1", "Lamp", null,
+                                previousPrice == null ? null : new BigDecimal(previousPrice),
+                                new BigDecimal(price), inventory);
+        }
+}
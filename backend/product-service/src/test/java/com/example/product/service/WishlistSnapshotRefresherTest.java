@@ -0,0 +1,70 @@
+package com.example.product.service;
+
+import com.example.product.repository.WishlistItemWriter;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WishlistSnapshotRefresherTest {
+
+        private static final TopicPartition PARTITION = new TopicPartition("product-events", 0);
+
+        private final ProductCatalogCache catalogCache = mock(ProductCatalogCache.class);
+        private final WishlistItemWriter itemWriter = mock(WishlistItemWriter.class);
+        private final WishlistSnapshotRefresher refresher = new WishlistSnapshotRefresher(catalogCache, itemWriter, 2);
+        private final List<List<String>> batches = new ArrayList<>();
+
+        @Test
+        void writesInBatchesAndAcknowledgesOnlyTheLatestOffsetOnceAllAreWritten() {
+                recordBatches();
+                Acknowledgment first = mock(Acknowledgment.class);
+                Acknowledgment last = mock(Acknowledgment.class);
+                refresher.productUpdated("p1", PARTITION, first);
+                refresher.productUpdated("p2", PARTITION, mock(Acknowledgment.class));
+                refresher.productUpdated("p1", PARTITION, mock(Acknowledgment.class));
+                // An event without a product still has its offset committed with the rest
+                refresher.productUpdated(null, PARTITION, mock(Acknowledgment.class));
+                refresher.productUpdated("p3", PARTITION, last);
+
+                refresher.refresh();
+
+                assertThat(batches).hasSize(2).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(2));
+                assertThat(batches.stream().flatMap(List::stream)).containsExactlyInAnyOrder("p1", "p2", "p3");
+                verify(last).acknowledge();
+                verify(first, never()).acknowledge();
+        }
+
+        @Test
+        void keepsIdsAndAcksOfAFailedWriteForTheNextRun() {
+                when(itemWriter.refreshSnapshots(anyList())).thenThrow(new IllegalStateException("database down"));
+                Acknowledgment ack = mock(Acknowledgment.class);
+                refresher.productUpdated("p1", PARTITION, ack);
+
+                refresher.refresh();
+                verify(ack, never()).acknowledge();
+
+                recordBatches();
+                refresher.refresh();
+                assertThat(batches).containsExactly(List.of("p1"));
+                verify(ack).acknowledge();
+        }
+
+        private void recordBatches() {
+                when(catalogCache.getAll(anyList())).thenAnswer(invocation -> {
+                        batches.add(List.copyOf(invocation.<List<String>>getArgument(0)));
+                        return List.of();
+                });
+                doReturn(0).when(itemWriter).refreshSnapshots(anyList());
+        }
+}
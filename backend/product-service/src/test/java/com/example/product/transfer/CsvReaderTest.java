@@ -0,0 +1,47 @@
+package com.example.product.transfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CsvReaderTest {
+
+        @Test
+        void readsQuotedFieldsAcrossLinesAndTracksRecordLines() throws Exception {
+                CsvReader reader = new CsvReader(new StringReader(
+                                "\uFEFFid,name\r\n1,\"Sofa, grey\"\n\n2,\"Says \"\"hi\"\"\nover two lines\"\n3,\n"));
+
+                assertThat(reader.next()).containsExactly("id", "name");
+                assertThat(reader.next()).containsExactly("1", "Sofa, grey");
+                assertThat(reader.line()).isEqualTo(2);
+                assertThat(reader.next()).containsExactly("2", "Says \"hi\"\nover two lines");
+                assertThat(reader.line()).isEqualTo(4);
+                assertThat(reader.next()).containsExactly("3", "");
+                assertThat(reader.line()).isEqualTo(6);
+                assertThat(reader.next()).isNull();
+        }
+
+        @Test
+        void readsBackWhatTheWriterWrites() throws Exception {
+                List<String> row = List.of("plain", "with,comma", "with \"quote\"", "two\nlines", "");
+                StringWriter out = new StringWriter();
+                new CsvWriter(out).writeRow(row);
+
+                CsvReader reader = new CsvReader(new StringReader(out.toString()));
+                assertThat(reader.next()).containsExactlyElementsOf(row);
+                assertThat(reader.next()).isNull();
+        }
+
+        @Test
+        void rejectsUnterminatedQuotes() {
+                CsvReader reader = new CsvReader(new StringReader("1,\"never closed\n2,x\n"));
+
+                assertThatThrownBy(reader::next).isInstanceOf(IOException.class).hasMessageContaining("line 1");
+        }
+}